@@ -0,0 +1,259 @@
+package uz.ilmnajot.openlibraryspringapp.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over author names for autocomplete.
+ * <p>
+ * Every author is indexed under its normalized name and under each later word of it,
+ * so "tolk" finds "J.R.R. Tolkien". Keys live in a sorted array (binary search + range scan),
+ * new authors go to a small concurrent skip list that is folded into the array once it grows.
+ * The folding is a linear merge run on the background refresh executor; readers keep using
+ * the previous array until the merged one is swapped in.
+ * <p>
+ * There is no popularity or relevance signal stored for authors, so the "top-k" of a prefix
+ * are simply the first k matches in alphabetical order of the matched key.
+ */
+@Slf4j
+@Component
+public class AuthorPrefixIndex implements MeterBinder {
+
+    static final int COMPACT_THRESHOLD = 10_000;
+
+    private static final String COMPACT_TASK = "author-index:compact";
+
+    /**
+     * Separates the name from the author id in a key, sorts before any name character
+     */
+    private static final char SEPARATOR = '\0';
+
+    private final AuthorRepository authorRepository;
+    private final BackgroundRefresher backgroundRefresher;
+
+    private volatile Snapshot base = new Snapshot(new String[0], new AuthorResponse[0]);
+    private final ConcurrentSkipListMap<String, AuthorResponse> delta = new ConcurrentSkipListMap<>();
+
+    /**
+     * Current name per author id; entries indexed under an older name are skipped and later dropped
+     */
+    private final Map<String, String> currentNames = new ConcurrentHashMap<>();
+
+    public AuthorPrefixIndex(AuthorRepository authorRepository, BackgroundRefresher backgroundRefresher) {
+        this.authorRepository = authorRepository;
+        this.backgroundRefresher = backgroundRefresher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.nanoTime();
+        try (Stream<AuthorResponse> authors = this.authorRepository.streamAllNames()) {
+            this.rebuild(authors);
+        }
+        log.info("Author prefix index built with {} keys for {} authors in {} ms",
+                this.base.keys.length, this.currentNames.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replaces the whole index with the given authors.
+     */
+    public synchronized void rebuild(Stream<AuthorResponse> authors) {
+        List<Map.Entry<String, AuthorResponse>> entries = new ArrayList<>();
+        authors.forEach(author -> {
+            if (author.getAuthorId() == null || author.getAuthorName() == null) {
+                return;
+            }
+            // an add() that raced with the load is newer than the DB snapshot
+            this.currentNames.putIfAbsent(author.getAuthorId(), author.getAuthorName());
+            for (String key : keys(author)) {
+                entries.add(Map.entry(key, author));
+            }
+        });
+        entries.sort(Map.Entry.comparingByKey());
+        this.base = Snapshot.of(entries);
+    }
+
+    public void addAll(Collection<AuthorResponse> authors) {
+        authors.forEach(this::add);
+    }
+
+    public void add(AuthorResponse author) {
+        if (author.getAuthorId() == null || author.getAuthorName() == null) {
+            return;
+        }
+        String previous = this.currentNames.put(author.getAuthorId(), author.getAuthorName());
+        if (author.getAuthorName().equals(previous)) {
+            return;
+        }
+        for (String key : keys(author)) {
+            this.delta.put(key, author);
+        }
+        if (this.delta.size() > COMPACT_THRESHOLD) {
+            // at most one merge queued; if the executor is full, a later add schedules it again
+            this.backgroundRefresher.schedule(COMPACT_TASK, this::compact);
+        }
+    }
+
+    /**
+     * Up to {@code limit} distinct authors whose name, or a word in it, starts with the prefix,
+     * in alphabetical order of the matched key.
+     */
+    public List<AuthorResponse> suggest(String prefix, int limit) {
+        String normalized = AuthorSearchCache.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Snapshot snapshot = this.base;
+        int i = snapshot.lowerBound(normalized);
+        Iterator<Map.Entry<String, AuthorResponse>> fresh =
+                this.delta.tailMap(normalized, true).entrySet().iterator();
+        Map.Entry<String, AuthorResponse> next = nextMatch(fresh, normalized);
+
+        List<AuthorResponse> result = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        while (result.size() < limit) {
+            boolean fromBase = i < snapshot.keys.length && snapshot.keys[i].startsWith(normalized);
+            if (!fromBase && next == null) {
+                break;
+            }
+            AuthorResponse author;
+            if (fromBase && (next == null || snapshot.keys[i].compareTo(next.getKey()) <= 0)) {
+                author = snapshot.values[i++];
+            } else {
+                author = next.getValue();
+                next = nextMatch(fresh, normalized);
+            }
+            if (this.isCurrent(author) && seen.add(author.getAuthorId())) {
+                result.add(author);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return this.currentNames.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("openlibrary.author-index.authors", this, AuthorPrefixIndex::size)
+                .description("Authors in the autocomplete prefix index")
+                .register(registry);
+        Gauge.builder("openlibrary.author-index.pending", this.delta, Map::size)
+                .description("Keys added since the sorted array was last compacted")
+                .register(registry);
+    }
+
+    /**
+     * Folds the skip list into a new sorted array and drops keys of renamed authors. Both sides
+     * are already sorted, so this is one linear merge pass rather than a sort.
+     */
+    synchronized void compact() {
+        Snapshot snapshot = this.base;
+        List<Map.Entry<String, AuthorResponse>> pending = new ArrayList<>(this.delta.entrySet());
+        int capacity = snapshot.keys.length + pending.size();
+        String[] keys = new String[capacity];
+        AuthorResponse[] values = new AuthorResponse[capacity];
+        int merged = 0;
+        int i = 0;
+        int j = 0;
+        while (i < snapshot.keys.length || j < pending.size()) {
+            int order = i == snapshot.keys.length ? 1
+                    : j == pending.size() ? -1
+                    : snapshot.keys[i].compareTo(pending.get(j).getKey());
+            String key;
+            AuthorResponse value;
+            if (order < 0) {
+                key = snapshot.keys[i];
+                value = snapshot.values[i++];
+            } else {
+                // on equal keys (an author renamed back) the skip list entry replaces the array one
+                key = pending.get(j).getKey();
+                value = pending.get(j++).getValue();
+                if (order == 0) {
+                    i++;
+                }
+            }
+            if (this.isCurrent(value)) {
+                keys[merged] = key;
+                values[merged++] = value;
+            }
+        }
+        this.base = new Snapshot(Arrays.copyOf(keys, merged), Arrays.copyOf(values, merged));
+        // keys added while merging stay in the skip list for the next round
+        pending.forEach(entry -> this.delta.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private boolean isCurrent(AuthorResponse author) {
+        return Objects.equals(this.currentNames.get(author.getAuthorId()), author.getAuthorName());
+    }
+
+    private static Map.Entry<String, AuthorResponse> nextMatch(Iterator<Map.Entry<String, AuthorResponse>> entries,
+                                                              String prefix) {
+        if (!entries.hasNext()) {
+            return null;
+        }
+        Map.Entry<String, AuthorResponse> entry = entries.next();
+        return entry.getKey().startsWith(prefix) ? entry : null;
+    }
+
+    /**
+     * One key per word start: "j. r. r. tolkien", "r. r. tolkien", "r. tolkien", "tolkien"
+     */
+    static List<String> keys(AuthorResponse author) {
+        String name = AuthorSearchCache.normalize(author.getAuthorName());
+        String suffix = SEPARATOR + author.getAuthorId();
+        List<String> keys = new ArrayList<>(4);
+        for (int i = 0; i < name.length(); i++) {
+            if (i == 0 || name.charAt(i - 1) == ' ') {
+                keys.add(name.substring(i) + suffix);
+            }
+        }
+        return keys;
+    }
+
+    private record Snapshot(String[] keys, AuthorResponse[] values) {
+
+        static Snapshot of(List<Map.Entry<String, AuthorResponse>> sorted) {
+            String[] keys = new String[sorted.size()];
+            AuthorResponse[] values = new AuthorResponse[sorted.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = sorted.get(i).getKey();
+                values[i] = sorted.get(i).getValue();
+            }
+            return new Snapshot(keys, values);
+        }
+
+        /**
+         * Index of the first key that is not less than the prefix
+         */
+        int lowerBound(String prefix) {
+            int found = Arrays.binarySearch(this.keys, prefix, Comparator.naturalOrder());
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package uz.ilmnajot.openlibraryspringapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uz.ilmnajot.openlibraryspringapp.config.AuthorSearchCacheProperties;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Bounded W-TinyLFU cache of author search results keyed by the normalized query.
+ * Empty results are cached too, with their own (shorter) TTL.
+ */
+@Component
+public class AuthorSearchCache implements MeterBinder {
+
+    private final Cache<String, List<AuthorResponse>> cache;
+
+    @Autowired
+    public AuthorSearchCache(AuthorSearchCacheProperties properties) {
+        this(properties, Ticker.systemTicker());
+    }
+
+    AuthorSearchCache(AuthorSearchCacheProperties properties, Ticker ticker) {
+        long ttlNanos = properties.getTtl().toNanos();
+        long negativeTtlNanos = properties.getNegativeTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new Expiry<String, List<AuthorResponse>>() {
+                    @Override
+                    public long expireAfterCreate(String key, List<AuthorResponse> value, long currentTime) {
+                        return value.isEmpty() ? negativeTtlNanos : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, List<AuthorResponse> value,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, List<AuthorResponse> value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Normalizes a raw search query so that "Tolkien", " tolkien " and "TOLKIEN" share one entry.
+     */
+    public static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return query.trim()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<List<AuthorResponse>> get(String key) {
+        return Optional.ofNullable(this.cache.getIfPresent(key));
+    }
+
+    public void put(String key, List<AuthorResponse> authors) {
+        this.cache.put(key, List.copyOf(authors));
+    }
+
+    public void invalidate(String key) {
+        this.cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    public long size() {
+        return this.cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, this.cache, "authorSearch");
+    }
+}
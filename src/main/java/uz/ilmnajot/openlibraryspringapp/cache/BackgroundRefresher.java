@@ -0,0 +1,82 @@
+package uz.ilmnajot.openlibraryspringapp.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs refreshes of stale data off the request thread, at most one queued or running per key.
+ * Requests hitting the same stale entry while its refresh is pending do not queue another one,
+ * and refreshes that do not fit the executor's queue are dropped; a later request reschedules them.
+ */
+@Slf4j
+@Component
+public class BackgroundRefresher implements MeterBinder {
+
+    private final Executor refreshExecutor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public BackgroundRefresher(@Qualifier("refreshExecutor") Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * @return false if a refresh for the key is already pending or the executor is saturated
+     */
+    public boolean schedule(String key, Runnable refresh) {
+        if (!this.pending.add(key)) {
+            return false;
+        }
+        try {
+            this.refreshExecutor.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (RuntimeException e) {
+                    this.failed.increment();
+                    log.warn("Background refresh failed for {}: {}", key, e.getMessage());
+                } finally {
+                    this.pending.remove(key);
+                }
+            });
+            this.scheduled.increment();
+            return true;
+        } catch (TaskRejectedException e) {
+            this.pending.remove(key);
+            this.rejected.increment();
+            log.debug("Refresh queue full, dropped refresh for {}", key);
+            return false;
+        }
+    }
+
+    public int pendingCount() {
+        return this.pending.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("openlibrary.refresh.scheduled", this.scheduled, LongAdder::sum)
+                .description("Background refreshes handed to the executor")
+                .register(registry);
+        FunctionCounter.builder("openlibrary.refresh.rejected", this.rejected, LongAdder::sum)
+                .description("Background refreshes dropped because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("openlibrary.refresh.failed", this.failed, LongAdder::sum)
+                .description("Background refreshes that threw")
+                .register(registry);
+        Gauge.builder("openlibrary.refresh.pending", this, BackgroundRefresher::pendingCount)
+                .register(registry);
+    }
+}
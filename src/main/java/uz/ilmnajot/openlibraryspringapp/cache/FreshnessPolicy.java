@@ -0,0 +1,63 @@
+package uz.ilmnajot.openlibraryspringapp.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uz.ilmnajot.openlibraryspringapp.config.FreshnessProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Classifies locally stored OpenLibrary data by the time it was last fetched,
+ * against the soft and hard TTLs of {@link FreshnessProperties}.
+ */
+@Component
+public class FreshnessPolicy {
+
+    public enum Freshness {
+        /** younger than the soft TTL: serve as is */
+        FRESH,
+        /** past the soft TTL, or of unknown age: serve and refresh in the background */
+        STALE,
+        /** past the hard TTL: refetch before serving */
+        EXPIRED
+    }
+
+    private final FreshnessProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public FreshnessPolicy(FreshnessProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    FreshnessPolicy(FreshnessProperties properties, Clock clock) {
+        if (properties.getHardTtl().compareTo(properties.getSoftTtl()) < 0) {
+            throw new IllegalArgumentException("openlibrary.freshness.hard-ttl must not be shorter than soft-ttl");
+        }
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * @param fetchedAt when the data was last fetched from OpenLibrary, null if never recorded
+     */
+    public Freshness classify(Instant fetchedAt) {
+        if (fetchedAt == null) {
+            return Freshness.STALE;
+        }
+        Duration age = Duration.between(fetchedAt, this.now());
+        if (age.compareTo(this.properties.getHardTtl()) >= 0) {
+            return Freshness.EXPIRED;
+        }
+        if (age.compareTo(this.properties.getSoftTtl()) >= 0) {
+            return Freshness.STALE;
+        }
+        return Freshness.FRESH;
+    }
+
+    public Instant now() {
+        return this.clock.instant();
+    }
+}
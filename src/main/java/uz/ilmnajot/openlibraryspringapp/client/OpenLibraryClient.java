@@ -0,0 +1,146 @@
+package uz.ilmnajot.openlibraryspringapp.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundGate;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibrarySearchResponse;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorksPage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Thin wrapper over the OpenLibrary endpoints used for authors and works.
+ * Every call goes through the {@link OutboundGate} and throws
+ * {@link uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException} when it is not let through.
+ */
+@Slf4j
+@Component
+public class OpenLibraryClient {
+
+    private final RestTemplate restTemplate;
+    private final Executor upstreamExecutor;
+    private final UpstreamValidators upstreamValidators;
+    private final OutboundGate gate;
+    private final WorksPageDecoder worksPageDecoder = new WorksPageDecoder();
+    private final HttpMessageConverterExtractor<OpenLibrarySearchResponse> searchResponseExtractor;
+
+    @Value("${openlibrary.api.base-url}")
+    private String baseUrl;
+
+    public OpenLibraryClient(RestTemplate restTemplate,
+                             @Qualifier("upstreamExecutor") Executor upstreamExecutor,
+                             UpstreamValidators upstreamValidators,
+                             OutboundGate gate) {
+        this.restTemplate = restTemplate;
+        this.upstreamExecutor = upstreamExecutor;
+        this.upstreamValidators = upstreamValidators;
+        this.gate = gate;
+        this.searchResponseExtractor = new HttpMessageConverterExtractor<>(OpenLibrarySearchResponse.class,
+                restTemplate.getMessageConverters());
+    }
+
+    /**
+     * Searches authors by name
+     * API: <a href="https://openlibrary.org/search/authors.json?q=">...</a>{name}
+     *
+     * @param revalidate send the validators remembered for this search, so an unchanged
+     *                   result comes back as 304 without a body
+     */
+    public UpstreamResponse<OpenLibrarySearchResponse> searchAuthors(String name, boolean revalidate) {
+        String url = this.url("/search/authors.json?q=" + name.replace(" ", "%20"));
+        log.info("Searching authors in OpenLibrary API: {}", url);
+        return this.conditionalGet(url, revalidate, this.searchResponseExtractor);
+    }
+
+    /**
+     * Fetches one page of an author's works
+     * Example path: /authors/OL1394244A/works.json?limit=100
+     * The body is decoded as a stream, see {@link WorksPageDecoder}
+     *
+     * @return the page, or null when OpenLibrary returned no body
+     */
+    public OpenLibraryWorksPage fetchWorksPage(String path) {
+        String url = this.url(path);
+        log.info("Fetching works from OpenLibrary API: {}", url);
+        return this.gate.call(() -> this.restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> this.worksPageDecoder.decode(response.getBody())));
+    }
+
+    /**
+     * Same as {@link #fetchWorksPage(String)}, as a conditional request when revalidating
+     */
+    public UpstreamResponse<OpenLibraryWorksPage> fetchWorksPage(String path, boolean revalidate) {
+        String url = this.url(path);
+        log.info("Fetching works from OpenLibrary API: {}", url);
+        return this.conditionalGet(url, revalidate, response -> this.worksPageDecoder.decode(response.getBody()));
+    }
+
+    /**
+     * Remembers the validators of a response for the next conditional request to its URL.
+     * Call once what the response carried is stored.
+     */
+    public void storeValidators(UpstreamResponse<?> response) {
+        this.upstreamValidators.remember(response);
+    }
+
+    /**
+     * Drops the validators remembered for the response's URL, so the next request to it is
+     * unconditional. For responses whose 304 would not vouch for everything stored from them.
+     */
+    public void forgetValidators(UpstreamResponse<?> response) {
+        this.upstreamValidators.forget(response.url());
+    }
+
+    /**
+     * Same as {@link #fetchWorksPage(String)}, run on the upstream executor so the caller
+     * can persist the current page meanwhile.
+     */
+    public CompletableFuture<OpenLibraryWorksPage> fetchWorksPageAsync(String path) {
+        return CompletableFuture.supplyAsync(() -> this.fetchWorksPage(path), this.upstreamExecutor);
+    }
+
+    /**
+     * Fetches the display name of an author
+     * API: <a href="https://openlibrary.org/authors/OL1394244A.json">...</a>
+     */
+    public Optional<String> fetchAuthorName(String authorId) {
+        String url = this.url(authorId + ".json");
+        log.info("Fetching author details from OpenLibrary API: {}", url);
+        JsonNode response = this.gate.call(() -> this.restTemplate.getForObject(url, JsonNode.class));
+        return response != null && response.has("name")
+                ? Optional.of(response.get("name").asText())
+                : Optional.empty();
+    }
+
+    private <T> UpstreamResponse<T> conditionalGet(String url, boolean revalidate, ResponseExtractor<T> bodyExtractor) {
+        return this.gate.call(() -> this.restTemplate.execute(url, HttpMethod.GET,
+                request -> {
+                    request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                    if (revalidate) {
+                        this.upstreamValidators.applyTo(url, request.getHeaders());
+                    }
+                },
+                response -> response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)
+                        ? UpstreamResponse.notModified(url, response.getHeaders())
+                        : UpstreamResponse.of(url, bodyExtractor.extractData(response), response.getHeaders())));
+    }
+
+    private String url(String path) {
+        return this.baseUrl.endsWith("/") && path.startsWith("/")
+                ? this.baseUrl + path.substring(1)
+                : this.baseUrl + path;
+    }
+}
@@ -0,0 +1,30 @@
+package uz.ilmnajot.openlibraryspringapp.client;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Result of a conditional GET against OpenLibrary, together with the validators it came with.
+ *
+ * @param body         decoded body, null when not modified (or when OpenLibrary sent none)
+ * @param notModified  OpenLibrary answered 304: what was stored from this URL is still current
+ * @param etag         ETag of the response, if any
+ * @param lastModified Last-Modified of the response as received, if any
+ */
+public record UpstreamResponse<T>(String url,
+                                  T body,
+                                  boolean notModified,
+                                  String etag,
+                                  String lastModified) {
+
+    public static <T> UpstreamResponse<T> of(String url, T body, HttpHeaders headers) {
+        return new UpstreamResponse<>(url, body, false, headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+    }
+
+    public static <T> UpstreamResponse<T> notModified(String url, HttpHeaders headers) {
+        return new UpstreamResponse<>(url, null, true, headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+    }
+
+    public boolean hasValidators() {
+        return this.etag != null || this.lastModified != null;
+    }
+}
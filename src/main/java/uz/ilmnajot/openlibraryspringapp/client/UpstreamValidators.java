@@ -0,0 +1,69 @@
+package uz.ilmnajot.openlibraryspringapp.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import uz.ilmnajot.openlibraryspringapp.entity.UpstreamValidator;
+import uz.ilmnajot.openlibraryspringapp.repository.UpstreamValidatorRepository;
+
+import java.time.Instant;
+
+/**
+ * Per-URL validators of OpenLibrary responses. They are only remembered once the caller has
+ * stored what the response carried, so a 304 never stands for data that was not persisted.
+ */
+@Component
+@RequiredArgsConstructor
+class UpstreamValidators {
+
+    private static final int MAX_URL_LENGTH = 2048;
+    private static final int MAX_ETAG_LENGTH = 512;
+    private static final int MAX_LAST_MODIFIED_LENGTH = 64;
+
+    private final UpstreamValidatorRepository upstreamValidatorRepository;
+
+    /**
+     * Adds If-None-Match / If-Modified-Since for what was last remembered for the URL
+     */
+    void applyTo(String url, HttpHeaders headers) {
+        this.upstreamValidatorRepository.findById(url).ifPresent(validator -> {
+            if (validator.getEtag() != null) {
+                headers.setIfNoneMatch(validator.getEtag());
+            }
+            if (validator.getLastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, validator.getLastModified());
+            }
+        });
+    }
+
+    /**
+     * Keeps the validators of a response, or drops stale ones when OpenLibrary stopped sending any.
+     * A 304 without validators leaves the stored ones as they are.
+     */
+    void remember(UpstreamResponse<?> response) {
+        if (response.url().length() > MAX_URL_LENGTH) {
+            return;
+        }
+        // a cut validator would never match again, so an oversized one is not sent back at all
+        String etag = fits(response.etag(), MAX_ETAG_LENGTH);
+        String lastModified = fits(response.lastModified(), MAX_LAST_MODIFIED_LENGTH);
+        if (etag != null || lastModified != null) {
+            this.upstreamValidatorRepository.save(new UpstreamValidator(response.url(), etag, lastModified, Instant.now()));
+        } else if (!response.notModified()) {
+            this.upstreamValidatorRepository.deleteById(response.url());
+        }
+    }
+
+    /**
+     * Stops sending validators for the URL
+     */
+    void forget(String url) {
+        if (url.length() <= MAX_URL_LENGTH) {
+            this.upstreamValidatorRepository.deleteById(url);
+        }
+    }
+
+    private static String fits(String value, int maxLength) {
+        return value != null && value.length() <= maxLength ? value : null;
+    }
+}
@@ -0,0 +1,191 @@
+package uz.ilmnajot.openlibraryspringapp.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorksPage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for works.json pages.
+ * Reads the body token by token and builds {@link OpenLibraryWorkDoc}s directly,
+ * skipping every field we don't store, so no JsonNode tree is ever materialized.
+ */
+@Slf4j
+class WorksPageDecoder {
+
+    private static final String UNKNOWN_TITLE = "Unknown Title";
+
+    private final JsonFactory jsonFactory;
+
+    WorksPageDecoder() {
+        this(new JsonFactory());
+    }
+
+    WorksPageDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * @return the decoded page, or null when the body is empty
+     */
+    OpenLibraryWorksPage decode(InputStream body) throws IOException {
+        try (JsonParser parser = this.jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            OpenLibraryWorksPage page = new OpenLibraryWorksPage();
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return page;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "entries" -> this.readEntries(parser, page.getEntries());
+                    case "links" -> page.setNext(this.readNextLink(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            return page;
+        }
+    }
+
+    private void readEntries(JsonParser parser, List<OpenLibraryWorkDoc> docs) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            OpenLibraryWorkDoc doc = this.readEntry(parser);
+            if (doc != null) {
+                docs.add(doc);
+            }
+        }
+    }
+
+    private OpenLibraryWorkDoc readEntry(JsonParser parser) throws IOException {
+        String key = null;
+        String title = UNKNOWN_TITLE;
+        String description = null;
+        List<String> subjects = new ArrayList<>();
+        List<Long> covers = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "key" -> key = this.readText(parser);
+                case "title" -> title = this.readText(parser);
+                case "description" -> description = this.readDescription(parser);
+                case "subjects" -> this.readSubjects(parser, subjects);
+                case "covers" -> this.readCovers(parser, covers);
+                default -> {
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+
+        if (key == null) {
+            log.warn("No key found in work entry");
+            return null;
+        }
+        return new OpenLibraryWorkDoc(key, title, description, subjects, covers);
+    }
+
+    /**
+     * Text of a scalar value; containers are skipped and read as an empty string.
+     */
+    private String readText(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.currentToken() == JsonToken.VALUE_NULL ? "null" : parser.getText();
+    }
+
+    /**
+     * Description is either a plain string or {"type": "/type/text", "value": "..."}.
+     */
+    private String readDescription(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String description = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("value".equals(field)) {
+                description = this.readText(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return description;
+    }
+
+    private void readSubjects(JsonParser parser, List<String> subjects) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                subjects.add(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readCovers(JsonParser parser, List<Long> covers) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken().isNumeric()) {
+                covers.add(parser.getValueAsLong());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private String readNextLink(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String next = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("next".equals(field) && parser.currentToken() == JsonToken.VALUE_STRING) {
+                next = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return next;
+    }
+}
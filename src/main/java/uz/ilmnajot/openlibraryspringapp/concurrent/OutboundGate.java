@@ -0,0 +1,214 @@
+package uz.ilmnajot.openlibraryspringapp.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for calls to one upstream: a bulkhead of maxConcurrent call slots with at
+ * most maxWaiting callers queued for one, then a token bucket refilled at ratePerSecond up to
+ * burst tokens. A caller waits at most maxWait in total; whatever cannot go out by then is
+ * rejected with {@link OutboundRejectedException} rather than piling up on the upstream.
+ * <p>
+ * Tokens are reserved ahead: a caller that takes a token not yet refilled sleeps until it is,
+ * and the callers after it wait behind it, so calls leave evenly spaced.
+ */
+@Slf4j
+public class OutboundGate implements MeterBinder {
+
+    public enum Rejection {
+        /**
+         * All call slots busy and the wait queue full
+         */
+        QUEUE_FULL,
+        /**
+         * No call slot freed up within maxWait
+         */
+        BULKHEAD,
+        /**
+         * No token would be available within maxWait
+         */
+        RATE_LIMIT
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final double nanosPerToken;
+    private final int burst;
+
+    private final Semaphore slots;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder permitted = new LongAdder();
+    private final Map<Rejection, LongAdder> rejected = new EnumMap<>(Rejection.class);
+
+    // token bucket state, guarded by this
+    private double tokens;
+    private long refilledAt;
+
+    public OutboundGate(String name, double ratePerSecond, int burst, int maxConcurrent, int maxWaiting,
+                        Duration maxWait) {
+        if (ratePerSecond <= 0 || burst < 1 || maxConcurrent < 1 || maxWaiting < 0) {
+            throw new IllegalArgumentException("Invalid outbound gate limits for " + name);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        this.burst = burst;
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+        for (Rejection reason : Rejection.values()) {
+            this.rejected.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Runs the call once it is admitted, holding its call slot until it returns
+     *
+     * @throws OutboundRejectedException when the call was not admitted; the call did not run
+     */
+    public <T> T call(Supplier<T> call) {
+        long deadline = System.nanoTime() + this.maxWaitNanos;
+        this.acquireSlot(deadline);
+        try {
+            this.awaitToken(deadline);
+            this.permitted.increment();
+            return call.get();
+        } finally {
+            this.slots.release();
+        }
+    }
+
+    private void acquireSlot(long deadline) {
+        if (this.slots.tryAcquire()) {
+            return;
+        }
+        if (this.waiting.incrementAndGet() > this.maxWaiting) {
+            this.waiting.decrementAndGet();
+            throw this.reject(Rejection.QUEUE_FULL);
+        }
+        try {
+            if (!this.slots.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw this.reject(Rejection.BULKHEAD);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw this.reject(Rejection.BULKHEAD);
+        } finally {
+            this.waiting.decrementAndGet();
+        }
+    }
+
+    private void awaitToken(long deadline) {
+        long delay = this.reserveToken(System.nanoTime(), deadline);
+        if (delay < 0) {
+            throw this.reject(Rejection.RATE_LIMIT);
+        }
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw this.reject(Rejection.RATE_LIMIT);
+            }
+        }
+    }
+
+    /**
+     * @return nanos until the reserved token is refilled, or -1 (nothing reserved) when that
+     * would be past the deadline
+     */
+    synchronized long reserveToken(long now, long deadline) {
+        this.tokens = Math.min(this.burst, this.tokens + (now - this.refilledAt) / this.nanosPerToken);
+        this.refilledAt = now;
+        if (this.tokens >= 1) {
+            this.tokens -= 1;
+            return 0;
+        }
+        long delay = (long) Math.ceil((1 - this.tokens) * this.nanosPerToken);
+        if (now + delay > deadline) {
+            return -1;
+        }
+        this.tokens -= 1;
+        return delay;
+    }
+
+    private OutboundRejectedException reject(Rejection reason) {
+        this.rejected.get(reason).increment();
+        log.warn("Outbound call to {} rejected: {}", this.name, reason);
+        return new OutboundRejectedException("Outbound call to " + this.name + " rejected: " + reason,
+                reason, this.retryAfter());
+    }
+
+    private Duration retryAfter() {
+        return Duration.ofNanos(Math.max(TimeUnit.SECONDS.toNanos(1), (long) this.nanosPerToken));
+    }
+
+    public int activeCount() {
+        return this.maxConcurrent - this.slots.availablePermits();
+    }
+
+    public int waitingCount() {
+        return this.waiting.get();
+    }
+
+    public synchronized double availableTokens() {
+        return Math.max(0, Math.min(this.burst,
+                this.tokens + (System.nanoTime() - this.refilledAt) / this.nanosPerToken));
+    }
+
+    public long permittedCount() {
+        return this.permitted.sum();
+    }
+
+    public long rejectedCount(Rejection reason) {
+        return this.rejected.get(reason).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("openlibrary.outbound.active", this, OutboundGate::activeCount)
+                .tag("name", this.name)
+                .description("Calls holding a slot, including those waiting for a token")
+                .register(registry);
+        Gauge.builder("openlibrary.outbound.saturation", this, gate -> (double) gate.activeCount() / gate.maxConcurrent)
+                .tag("name", this.name)
+                .description("Share of the call slots in use")
+                .register(registry);
+        Gauge.builder("openlibrary.outbound.waiting", this, OutboundGate::waitingCount)
+                .tag("name", this.name)
+                .description("Callers queued for a call slot")
+                .register(registry);
+        Gauge.builder("openlibrary.outbound.tokens", this, OutboundGate::availableTokens)
+                .tag("name", this.name)
+                .description("Tokens left in the bucket")
+                .register(registry);
+        FunctionCounter.builder("openlibrary.outbound.permitted", this, OutboundGate::permittedCount)
+                .tag("name", this.name)
+                .description("Calls let through")
+                .register(registry);
+        for (Rejection reason : Rejection.values()) {
+            FunctionCounter.builder("openlibrary.outbound.rejected", this, gate -> gate.rejectedCount(reason))
+                    .tag("name", this.name)
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .description("Calls not let through")
+                    .register(registry);
+        }
+    }
+}
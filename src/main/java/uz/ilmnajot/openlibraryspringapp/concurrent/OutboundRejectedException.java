@@ -0,0 +1,21 @@
+package uz.ilmnajot.openlibraryspringapp.concurrent;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of making an outbound call the {@link OutboundGate} did not let through.
+ */
+@Getter
+public class OutboundRejectedException extends RuntimeException {
+
+    private final OutboundGate.Rejection reason;
+    private final Duration retryAfter;
+
+    public OutboundRejectedException(String message, OutboundGate.Rejection reason, Duration retryAfter) {
+        super(message);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+}
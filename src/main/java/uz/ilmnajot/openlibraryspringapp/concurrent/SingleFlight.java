@@ -0,0 +1,125 @@
+package uz.ilmnajot.openlibraryspringapp.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution.
+ * The first caller (leader) runs the loader; callers arriving while it runs
+ * wait for and share its result or exception, optionally bounded by a timeout.
+ */
+@Slf4j
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        return this.execute(key, loader, null);
+    }
+
+    /**
+     * Same as {@link #execute(Object, Supplier)}, but followers give up after {@code followerTimeout}
+     * with a {@link SingleFlightTimeoutException}. The leader itself is never interrupted.
+     */
+    public V execute(K key, Supplier<V> loader, Duration followerTimeout) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            this.coalesced.increment();
+            log.debug("Joining in-flight {} call for key: {}", this.name, key);
+            return this.await(key, existing, followerTimeout);
+        }
+
+        this.executions.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(K key, CompletableFuture<V> flight, Duration timeout) {
+        try {
+            return timeout == null
+                    ? flight.join()
+                    : flight.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            this.timeouts.increment();
+            throw new SingleFlightTimeoutException(
+                    "Timed out after " + timeout + " waiting for in-flight " + this.name + " call: " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SingleFlightTimeoutException("Interrupted waiting for in-flight " + this.name + " call: " + key);
+        } catch (CompletionException | ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public long executionCount() {
+        return this.executions.sum();
+    }
+
+    public long coalescedCount() {
+        return this.coalesced.sum();
+    }
+
+    public long timeoutCount() {
+        return this.timeouts.sum();
+    }
+
+    public int inFlightCount() {
+        return this.inFlight.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("openlibrary.singleflight.executions", this, SingleFlight::executionCount)
+                .tag("name", this.name)
+                .description("Calls that ran the loader")
+                .register(registry);
+        FunctionCounter.builder("openlibrary.singleflight.coalesced", this, SingleFlight::coalescedCount)
+                .tag("name", this.name)
+                .description("Calls that joined an in-flight execution")
+                .register(registry);
+        FunctionCounter.builder("openlibrary.singleflight.timeouts", this, SingleFlight::timeoutCount)
+                .tag("name", this.name)
+                .description("Followers that gave up waiting for the leader")
+                .register(registry);
+        Gauge.builder("openlibrary.singleflight.in-flight", this, SingleFlight::inFlightCount)
+                .tag("name", this.name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,11 @@
+package uz.ilmnajot.openlibraryspringapp.concurrent;
+
+/**
+ * Thrown to a follower that waited longer than allowed for an in-flight call.
+ */
+public class SingleFlightTimeoutException extends RuntimeException {
+
+    public SingleFlightTimeoutException(String message) {
+        super(message);
+    }
+}
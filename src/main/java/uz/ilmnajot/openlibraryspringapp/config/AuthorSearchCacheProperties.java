@@ -0,0 +1,29 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process cache in front of author search.
+ */
+@Data
+@ConfigurationProperties(prefix = "openlibrary.cache.author-search")
+public class AuthorSearchCacheProperties {
+
+    /**
+     * Maximum number of distinct queries kept in memory.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a non-empty result is served from memory.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * How long a "not found" result is served from memory.
+     */
+    private Duration negativeTtl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,44 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Bulk import of OpenLibrary data dumps (ol_dump_authors / ol_dump_works, plain or .gz).
+ */
+@Data
+@ConfigurationProperties(prefix = "openlibrary.import")
+public class DumpImportProperties {
+
+    /**
+     * Runs the import on startup and exits when it is done, instead of serving requests.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Authors dump; imported before the works so their author links can be resolved.
+     */
+    private Path authorsFile;
+
+    /**
+     * Works dump.
+     */
+    private Path worksFile;
+
+    /**
+     * Threads parsing dump lines in parallel.
+     */
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Dump lines per parse task, and per load transaction and checkpoint.
+     */
+    private int chunkSize = 5_000;
+
+    /**
+     * Continue after the lines recorded in the last checkpoint of the same file instead of from the start.
+     */
+    private boolean resume = true;
+}
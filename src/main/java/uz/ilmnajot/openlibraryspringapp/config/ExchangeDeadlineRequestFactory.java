@@ -0,0 +1,165 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apache request factory that cancels every exchange still running after the exchange timeout,
+ * headers and body together. The socket timeout only bounds the gap between two reads, so an
+ * upstream dripping a few bytes at a time could otherwise hold the calling thread and the pooled
+ * connection indefinitely; cancelling closes the connection and fails the blocked read.
+ * <p>
+ * The cancel is withdrawn once the response is closed (or the exchange fails), so finished
+ * exchanges do not leave a task, and the request it references, queued until the timeout.
+ */
+class ExchangeDeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final Duration exchangeTimeout;
+    private final ScheduledThreadPoolExecutor deadlines;
+
+    /**
+     * Hands the deadline scheduled in createHttpUriRequest to createRequest, which calls it on the same thread
+     */
+    private final ThreadLocal<ScheduledFuture<?>> scheduled = new ThreadLocal<>();
+
+    ExchangeDeadlineRequestFactory(HttpClient httpClient, Duration exchangeTimeout) {
+        super(httpClient);
+        this.exchangeTimeout = exchangeTimeout;
+        this.deadlines = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "openlibrary-http-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deadlines.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request = null;
+        ScheduledFuture<?> deadline;
+        try {
+            request = super.createRequest(uri, httpMethod);
+        } finally {
+            deadline = this.scheduled.get();
+            this.scheduled.remove();
+            if (request == null && deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+        return deadline == null ? request : new DeadlineRequest(request, deadline);
+    }
+
+    @Override
+    protected ClassicHttpRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+        ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+        if (request instanceof Cancellable cancellable) {
+            this.scheduled.set(this.deadlines.schedule(cancellable::cancel, this.exchangeTimeout.toMillis(),
+                    TimeUnit.MILLISECONDS));
+        }
+        return request;
+    }
+
+    /**
+     * Deadlines of exchanges not finished yet
+     */
+    int pendingDeadlines() {
+        return this.deadlines.getQueue().size();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        this.deadlines.shutdownNow();
+        super.destroy();
+    }
+
+    private record DeadlineRequest(ClientHttpRequest request, ScheduledFuture<?> deadline) implements ClientHttpRequest {
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ClientHttpResponse response = null;
+            try {
+                response = this.request.execute();
+                return new DeadlineResponse(response, this.deadline);
+            } finally {
+                if (response == null) {
+                    this.deadline.cancel(false);
+                }
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return this.request.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return this.request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return this.request.getURI();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return this.request.getAttributes();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.request.getHeaders();
+        }
+    }
+
+    private record DeadlineResponse(ClientHttpResponse response, ScheduledFuture<?> deadline)
+            implements ClientHttpResponse {
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return this.response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return this.response.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return this.response.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.response.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.response.close();
+            } finally {
+                this.deadline.cancel(false);
+            }
+        }
+    }
+}
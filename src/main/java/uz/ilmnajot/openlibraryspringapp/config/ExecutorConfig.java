@@ -0,0 +1,87 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Runs OpenLibrary calls that overlap with local work, e.g. prefetching the next works page
+     */
+    @Bean(name = "upstreamExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor upstreamExecutor(
+            @Value("${openlibrary.upstream.executor.max-threads:16}") int maxThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.min(4, maxThreads));
+        executor.setMaxPoolSize(maxThreads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("openlibrary-upstream-");
+        return executor;
+    }
+
+    /**
+     * Same role when spring.threads.virtual.enabled=true: one virtual thread per call,
+     * with max-threads kept as the cap on concurrent upstream calls
+     */
+    @Bean(name = "upstreamExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualUpstreamExecutor(
+            @Value("${openlibrary.upstream.executor.max-threads:16}") int maxThreads) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("openlibrary-upstream-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxThreads);
+        return executor;
+    }
+
+    /**
+     * Background refreshes of stale authors and works. Deliberately small and separate from the
+     * upstream executor, whose prefetches a refresh waits on; a full queue rejects new refreshes.
+     */
+    @Bean(name = "refreshExecutor")
+    public ThreadPoolTaskExecutor refreshExecutor(
+            @Value("${openlibrary.refresh.executor.max-threads:2}") int maxThreads,
+            @Value("${openlibrary.refresh.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxThreads);
+        executor.setMaxPoolSize(maxThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("openlibrary-refresh-");
+        return executor;
+    }
+
+    /**
+     * OpenLibrary fetches for the misses of batch works requests, shared by all of them: the pool
+     * size caps how many authors batches fetch at once, the rest wait in the queue. A full queue
+     * rejects the fetch, and the author is answered from what is stored or with an error.
+     */
+    @Bean(name = "worksBatchExecutor")
+    public ThreadPoolTaskExecutor worksBatchExecutor(
+            @Value("${openlibrary.works.batch.concurrency:4}") int concurrency,
+            @Value("${openlibrary.works.batch.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("openlibrary-batch-");
+        return executor;
+    }
+
+    /**
+     * Warm-up tasks; the pool size is the warm-up concurrency, the queue holds the rest of the run
+     */
+    @Bean(name = "warmupExecutor")
+    public ThreadPoolTaskExecutor warmupExecutor(WarmupProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getConcurrency());
+        executor.setMaxPoolSize(properties.getConcurrency());
+        executor.setThreadNamePrefix("openlibrary-warmup-");
+        return executor;
+    }
+}
@@ -0,0 +1,24 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * How long authors and works stored from OpenLibrary are trusted before they are fetched again.
+ */
+@Data
+@ConfigurationProperties(prefix = "openlibrary.freshness")
+public class FreshnessProperties {
+
+    /**
+     * Age after which stored data is still served, but refreshed in the background.
+     */
+    private Duration softTtl = Duration.ofDays(1);
+
+    /**
+     * Age after which a request waits for OpenLibrary instead of serving stored data.
+     */
+    private Duration hardTtl = Duration.ofDays(30);
+}
@@ -0,0 +1,15 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundGate;
+
+@Configuration
+public class OutboundGateConfig {
+
+    @Bean
+    public OutboundGate openLibraryGate(OutboundGateProperties properties) {
+        return new OutboundGate("openlibrary", properties.getRatePerSecond(), properties.getBurst(),
+                properties.getMaxConcurrentCalls(), properties.getMaxWaitingCalls(), properties.getMaxWait());
+    }
+}
@@ -0,0 +1,40 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limits on the calls made to OpenLibrary, shared by searches, works pages, prefetches,
+ * background refreshes and warm-up alike.
+ */
+@Data
+@ConfigurationProperties(prefix = "openlibrary.outbound")
+public class OutboundGateProperties {
+
+    /**
+     * Sustained calls per second (token bucket refill rate).
+     */
+    private double ratePerSecond = 3;
+
+    /**
+     * Calls that may go out back to back after a quiet period (token bucket capacity).
+     */
+    private int burst = 10;
+
+    /**
+     * Calls in progress at once (bulkhead).
+     */
+    private int maxConcurrentCalls = 8;
+
+    /**
+     * Callers allowed to wait for a free call slot; any beyond are rejected at once.
+     */
+    private int maxWaitingCalls = 32;
+
+    /**
+     * Longest a caller waits for a call slot and then for a token before being rejected.
+     */
+    private Duration maxWait = Duration.ofSeconds(2);
+}
@@ -0,0 +1,23 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uz.ilmnajot.openlibraryspringapp.concurrent.SingleFlight;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+
+import java.util.List;
+
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<String, List<AuthorResponse>> authorSearchFlight() {
+        return new SingleFlight<>("authorSearch");
+    }
+
+    @Bean
+    public SingleFlight<String, List<WorkResponse>> authorWorksFlight() {
+        return new SingleFlight<>("authorWorks");
+    }
+}
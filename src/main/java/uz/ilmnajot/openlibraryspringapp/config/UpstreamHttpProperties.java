@@ -0,0 +1,66 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Transport settings of the RestTemplate that talks to OpenLibrary.
+ */
+@Data
+@ConfigurationProperties(prefix = "openlibrary.http")
+public class UpstreamHttpProperties {
+
+    /**
+     * Transport behind the RestTemplate: pooled Apache HttpClient 5 (HTTP/1.1 keep-alive)
+     * or the JDK HttpClient, which negotiates HTTP/2 when the server offers it.
+     */
+    private Client client = Client.APACHE;
+
+    /**
+     * Pooled connections to one host; all OpenLibrary calls share a single route. Apache only.
+     */
+    private int maxConnectionsPerRoute = 20;
+
+    /**
+     * Pooled connections across all hosts. Apache only.
+     */
+    private int maxConnectionsTotal = 50;
+
+    /**
+     * Time to establish the TCP/TLS connection.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Longest gap between two reads of response data. Apache only.
+     */
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Deadline for a whole exchange, from sending the request to the end of the response body;
+     * a slowly dripping response is cancelled once it is reached.
+     */
+    private Duration exchangeTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Time to wait for a free pooled connection before failing. Apache only.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Idle keep-alive connections are closed after this long. Apache only.
+     */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Upper bound on the lifetime of a pooled connection, so DNS changes are picked up. Apache only.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    public enum Client {
+        APACHE,
+        JDK
+    }
+}
@@ -0,0 +1,46 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What the startup / on-demand warm-up preloads, and when the application counts as ready.
+ */
+@Data
+@ConfigurationProperties(prefix = "openlibrary.warmup")
+public class WarmupProperties {
+
+    /**
+     * Whether to warm up on startup and hold readiness until it reaches the threshold.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Authors whose works are preloaded, in any form accepted by /api/works/by-author.
+     */
+    private List<String> authorIds = new ArrayList<>();
+
+    /**
+     * Author search queries preloaded into the DB and the search cache.
+     */
+    private List<String> queries = new ArrayList<>();
+
+    /**
+     * How many of the most recently refreshed authors in the DB are warmed up in addition to authorIds.
+     */
+    private int learnedAuthors = 50;
+
+    /**
+     * Number of warm-up tasks running at the same time.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Fraction of warm-up tasks that must have succeeded before the application reports ready.
+     * It also reports ready once every task has finished, whatever their outcome.
+     */
+    private double readyThreshold = 0.8;
+}
@@ -1,21 +1,32 @@
 package uz.ilmnajot.openlibraryspringapp.controller;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
 import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
 import uz.ilmnajot.openlibraryspringapp.service.AuthorService;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/authors")
 public class AuthorController {
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final AuthorService authorService;
 
+    @Value("${openlibrary.http.authors-max-age:5m}")
+    private Duration maxAge;
+
     public AuthorController(AuthorService authorService) {
         this.authorService = authorService;
     }
@@ -31,13 +42,38 @@ public class AuthorController {
 //        List<AuthorResponse> authors = authorService.searchAuthor(name);
 //        return ResponseEntity.ok(authors);
 //    }
-    @GetMapping("/search")
+    /**
+     * A matching If-None-Match gets 304 without the body being serialized; cache hits of the
+     * search never touch the DB either. JSON unless the client asks for CBOR or Smile.
+     * Stored matches are capped at openlibrary.author-search.max-results, see AuthorService#searchAuthor
+     */
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ResponseFormats.SMILE_VALUE})
     public ResponseEntity<List<AuthorResponse>> searchAuthor(@RequestParam("q") String name) {
         try {
             List<AuthorResponse> authors = authorService.searchAuthor(name);
-            return ResponseEntity.ok(authors);
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(authors))
+                    .cacheControl(CacheControl.maxAge(this.maxAge).cachePublic())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(authors);
+        } catch (OutboundRejectedException e) {
+            throw e; // OutboundRejectedHandler answers 503 with Retry-After
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Autocomplete: authors whose name, or any word of it, starts with the prefix.
+     * Example: /api/authors/suggest?prefix=tolk&limit=10
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<AuthorResponse>> suggestAuthors(@RequestParam String prefix,
+                                                               @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(authorService.suggestAuthors(prefix, limit));
+    }
 }
@@ -0,0 +1,64 @@
+package uz.ilmnajot.openlibraryspringapp.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uz.ilmnajot.openlibraryspringapp.cache.AuthorSearchCache;
+import uz.ilmnajot.openlibraryspringapp.model.CacheStatsResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WarmupStatusResponse;
+import uz.ilmnajot.openlibraryspringapp.service.WarmupService;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/admin/cache")
+public class CacheAdminController {
+
+    private final AuthorSearchCache authorSearchCache;
+    private final WarmupService warmupService;
+
+    /**
+     * Hit/miss/eviction statistics of the author search cache
+     */
+    @GetMapping("/author-search")
+    public ResponseEntity<CacheStatsResponse> authorSearchStats() {
+        return ResponseEntity.ok(CacheStatsResponse.from(
+                authorSearchCache.size(), authorSearchCache.stats()));
+    }
+
+    /**
+     * Drops one query from the author search cache, or all of them when q is omitted
+     * Example: DELETE /api/admin/cache/author-search?q=tolkien
+     */
+    @DeleteMapping("/author-search")
+    public ResponseEntity<Void> invalidateAuthorSearch(
+            @RequestParam(name = "q", required = false) String query) {
+        if (query == null) {
+            authorSearchCache.invalidateAll();
+        } else {
+            authorSearchCache.invalidate(AuthorSearchCache.normalize(query));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Progress of the current or last warm-up
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<WarmupStatusResponse> warmupStatus() {
+        return ResponseEntity.ok(warmupService.status());
+    }
+
+    /**
+     * Starts a warm-up in the background, unless one is already running
+     * Example: POST /api/admin/cache/warmup
+     */
+    @PostMapping("/warmup")
+    public ResponseEntity<WarmupStatusResponse> startWarmup() {
+        return ResponseEntity.accepted().body(warmupService.start());
+    }
+}
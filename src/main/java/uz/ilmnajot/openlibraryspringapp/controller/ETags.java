@@ -0,0 +1,44 @@
+package uz.ilmnajot.openlibraryspringapp.controller;
+
+import org.springframework.util.DigestUtils;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Entity tags for the read endpoints, computed from what the body is made of rather than from its
+ * serialized bytes, so a matching If-None-Match is answered before anything is written.
+ * They are weak: one tag covers the JSON, CBOR and Smile renderings of the same content, gzipped
+ * or not, and Tomcat does not compress responses that carry a strong ETag.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Digest of the ids and names, in order: everything an author search response contains
+     */
+    static String of(List<AuthorResponse> authors) {
+        StringBuilder content = new StringBuilder();
+        for (AuthorResponse author : authors) {
+            content.append(author.getAuthorId()).append('\t').append(author.getAuthorName()).append('\n');
+        }
+        return "W/\"a-" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * A refresh moves refreshedAt, new links move the count, and an edit of a work or of one of
+     * its authors by any writer (search upsert, refresh, dump import) moves updatedAt
+     */
+    static String of(WorksVersion version) {
+        long refreshedAt = version.refreshedAt() == null ? 0 : version.refreshedAt().toEpochMilli();
+        long updatedAt = ChronoUnit.MICROS.between(Instant.EPOCH, version.updatedAt());
+        return "W/\"w-" + Long.toHexString(refreshedAt) + "-" + version.linkCount()
+                + "-" + Long.toHexString(updatedAt) + "\"";
+    }
+}
@@ -0,0 +1,26 @@
+package uz.ilmnajot.openlibraryspringapp.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
+
+/**
+ * Reached only when nothing was stored to fall back to and OpenLibrary could not be asked either:
+ * 503 with Retry-After instead of a 500, and instead of an empty 200 that clients would cache
+ */
+@Slf4j
+@RestControllerAdvice
+public class OutboundRejectedHandler {
+
+    @ExceptionHandler(OutboundRejectedException.class)
+    public ResponseEntity<Void> outboundRejected(OutboundRejectedException e) {
+        log.info("Answering 503, nothing stored and {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package uz.ilmnajot.openlibraryspringapp.controller;
+
+/**
+ * Media types the read endpoints produce besides JSON. JSON is listed first in their
+ * {@code produces}, so it stays the default when the client accepts anything.
+ */
+final class ResponseFormats {
+
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private ResponseFormats() {
+    }
+}
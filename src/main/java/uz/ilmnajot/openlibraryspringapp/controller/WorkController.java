@@ -1,15 +1,38 @@
 package uz.ilmnajot.openlibraryspringapp.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorWorksResult;
 import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksBatchRequest;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
 import uz.ilmnajot.openlibraryspringapp.service.WorkService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @RequiredArgsConstructor
 @RestController
@@ -17,18 +40,163 @@ import java.util.List;
 public class WorkController {
 
     private final WorkService workService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${openlibrary.http.works-max-age:5m}")
+    private Duration maxAge;
+
+    @Value("${openlibrary.works.batch.max-authors:50}")
+    private int batchMaxAuthors;
 
     /**
      * Get all works by author ID
      * Example: /api/works/by-author?authorId=/authors/OL1394244A
+     * <p>
+     * The ETag and Last-Modified come from the stored version of the works, so a conditional
+     * request that still matches gets 304 before any work is read.
+     * JSON unless the client asks for CBOR or Smile.
+     * <p>
+     * No {@code produces} here: it would tie with the NDJSON mapping below for {@code Accept: *}{@code /*}.
+     * Left open, this one wins anything but an explicit NDJSON request, and converter order
+     * keeps JSON the default.
      */
     @GetMapping("/by-author")
     public ResponseEntity<List<WorkResponse>> getWorksByAuthor(
-            @RequestParam String authorId) {
+            @RequestParam String authorId, WebRequest request) {
         if (authorId == null || authorId.trim().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
+        Optional<WorksVersion> stored = workService.currentWorksVersion(authorId);
+        if (stored.isPresent() && request.checkNotModified(ETags.of(stored.get()), lastModified(stored.get()))) {
+            return this.notModified();
+        }
+
         List<WorkResponse> works = workService.getWorksByAuthor(authorId);
-        return ResponseEntity.ok(works);
+        return this.ok().body(works);
+    }
+
+    /**
+     * Same works as newline-delimited JSON, one work per line. Stored works go page by page from
+     * the DB through the mapper to the socket, so heap stays flat and the first line leaves as
+     * soon as the first page has been read. Works that first have to be fetched from
+     * OpenLibrary are written from the fetched list. Conditional requests behave as above.
+     */
+    @GetMapping(value = "/by-author", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamWorksByAuthor(
+            @RequestParam String authorId, WebRequest request) {
+        if (authorId == null || authorId.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<WorksVersion> stored = workService.currentWorksVersion(authorId);
+        if (stored.isPresent() && request.checkNotModified(ETags.of(stored.get()), lastModified(stored.get()))) {
+            return this.notModified();
+        }
+
+        StreamingResponseBody body;
+        if (stored.isPresent()) {
+            body = out -> {
+                NdjsonWriter writer = new NdjsonWriter(out);
+                workService.streamStoredWorks(authorId, writer::write);
+                writer.finish();
+            };
+        } else {
+            List<WorkResponse> works = workService.getWorksByAuthor(authorId);
+            body = out -> {
+                NdjsonWriter writer = new NdjsonWriter(out);
+                works.forEach(writer::write);
+                writer.finish();
+            };
+        }
+        return this.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Works of many authors in one call, keyed by author id as sent
+     * Example: POST /api/works/by-authors {"authorIds": ["OL1394244A", "/authors/OL23919A"]}
+     * <p>
+     * An author whose works could not be loaded gets an error entry; the others are still
+     * returned with 200.
+     */
+    @PostMapping("/by-authors")
+    public ResponseEntity<Map<String, AuthorWorksResult>> getWorksByAuthors(@RequestBody WorksBatchRequest request) {
+        List<String> authorIds = request.getAuthorIds();
+        if (authorIds == null || authorIds.isEmpty() || authorIds.size() > this.batchMaxAuthors
+                || authorIds.stream().anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(workService.getWorksByAuthors(authorIds));
+    }
+
+    private <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(this.cacheControl())
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    /**
+     * checkNotModified has already set ETag and Last-Modified from the version read before the
+     * works, when one was found. Works that were just fetched from OpenLibrary go out without
+     * validators instead of paying for a second version query; the next request is served from
+     * the database and tagged.
+     */
+    private ResponseEntity.BodyBuilder ok() {
+        return ResponseEntity.ok()
+                .cacheControl(this.cacheControl())
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(this.maxAge).cachePublic();
+    }
+
+    /**
+     * The later of the last refresh and the last edit, so If-Modified-Since alone also notices
+     * a dump import or a renamed author
+     */
+    private static long lastModified(WorksVersion version) {
+        long updatedAt = version.updatedAt().toEpochMilli();
+        return version.refreshedAt() == null ? updatedAt : Math.max(version.refreshedAt().toEpochMilli(), updatedAt);
+    }
+
+    /**
+     * One generator over the whole response. Jackson neither flushes nor closes the servlet
+     * stream per work: the first line is flushed so it leaves at once, after that the
+     * container's response buffer decides.
+     */
+    private final class NdjsonWriter {
+
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+        private boolean flushed;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            this.generator.setRootValueSeparator(null);
+            this.writer = objectMapper.writerFor(WorkResponse.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        void write(WorkResponse work) {
+            try {
+                this.writer.writeValue(this.generator, work);
+                this.generator.writeRaw('\n');
+                if (!this.flushed) {
+                    this.generator.enable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM).flush();
+                    this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                    this.flushed = true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            this.generator.close();
+        }
     }
 }
@@ -0,0 +1,4 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+record DumpAuthor(String key, String name) implements DumpRecord {
+}
@@ -0,0 +1,21 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A dump file as its checkpoint knows it: OpenLibrary reuses file names across monthly dumps, so
+ * the name alone does not say whether a checkpoint belongs to the file being imported
+ *
+ * @param modifiedAt truncated to millis so it survives the round trip through the database
+ */
+record DumpFile(String name, long size, Instant modifiedAt) {
+
+    static DumpFile of(Path file) throws IOException {
+        return new DumpFile(file.getFileName().toString(), Files.size(file),
+                Files.getLastModifiedTime(file).toInstant().truncatedTo(ChronoUnit.MILLIS));
+    }
+}
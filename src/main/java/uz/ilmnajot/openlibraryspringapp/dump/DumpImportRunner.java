@@ -0,0 +1,52 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import uz.ilmnajot.openlibraryspringapp.config.DumpImportProperties;
+
+/**
+ * Import command: imports the configured dumps, authors first, then exits.
+ * <pre>
+ * java -jar authors-app.jar --spring.main.web-application-type=none \
+ *     --openlibrary.import.enabled=true \
+ *     --openlibrary.import.authors-file=/data/ol_dump_authors_latest.txt.gz \
+ *     --openlibrary.import.works-file=/data/ol_dump_works_latest.txt.gz
+ * </pre>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "openlibrary.import.enabled", havingValue = "true")
+public class DumpImportRunner implements ApplicationRunner {
+
+    private final DumpImporter dumpImporter;
+    private final DumpImportProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            if (this.properties.getAuthorsFile() != null) {
+                this.dumpImporter.importFile(DumpKind.AUTHORS, this.properties.getAuthorsFile());
+            }
+            if (this.properties.getWorksFile() != null) {
+                this.dumpImporter.importFile(DumpKind.WORKS, this.properties.getWorksFile());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exitCode = 1;
+        } catch (Exception e) {
+            log.error("Dump import failed, rerun to resume from the last checkpoint", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(this.context, () -> code));
+    }
+}
@@ -0,0 +1,194 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uz.ilmnajot.openlibraryspringapp.config.DumpImportProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams an OpenLibrary dump file into the database in constant memory.
+ * <p>
+ * A reader thread cuts the (optionally gzipped) file into chunks of lines and hands them to a pool
+ * of parser threads. Parsed chunks are loaded on the calling thread strictly in file order, each in
+ * its own transaction together with the checkpoint, so an interrupted import resumes after the last
+ * loaded chunk. At most two chunks per parser thread are in memory at any time.
+ */
+@Slf4j
+@Component
+public class DumpImporter {
+
+    private static final Duration REPORT_INTERVAL = Duration.ofSeconds(10);
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    private static final Future<ParsedChunk> END_OF_FILE = CompletableFuture.completedFuture(null);
+
+    private final DumpLoader dumpLoader;
+    private final DumpImportProperties properties;
+    private final DumpLineParser parser = new DumpLineParser();
+
+    public DumpImporter(DumpLoader dumpLoader, DumpImportProperties properties) {
+        this.dumpLoader = dumpLoader;
+        this.properties = properties;
+    }
+
+    public ImportResult importFile(DumpKind kind, Path file) throws IOException, InterruptedException {
+        DumpFile dumpFile = DumpFile.of(file);
+        String fileName = dumpFile.name();
+        long resumeAt = this.properties.isResume() ? this.dumpLoader.linesDone(kind, dumpFile) : 0;
+        if (resumeAt > 0) {
+            log.info("Resuming import of {} after line {}", fileName, resumeAt);
+        }
+
+        int threads = Math.max(1, this.properties.getParserThreads());
+        BlockingQueue<Future<ParsedChunk>> chunks = new ArrayBlockingQueue<>(threads * 2);
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "dump-parser-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread reader = new Thread(() -> this.read(kind, file, resumeAt, parsers, chunks), "dump-reader");
+        reader.setDaemon(true);
+
+        long start = System.nanoTime();
+        long lastReport = start;
+        long linesDone = resumeAt;
+        long records = 0;
+        long links = 0;
+        long malformed = 0;
+        reader.start();
+        try {
+            while (true) {
+                ParsedChunk chunk = await(chunks.take());
+                if (chunk == null) {
+                    break;
+                }
+                links += this.dumpLoader.load(kind, dumpFile, chunk.records(), chunk.lastLine());
+                linesDone = chunk.lastLine();
+                records += chunk.records().size();
+                malformed += chunk.malformed();
+
+                long now = System.nanoTime();
+                if (now - lastReport >= REPORT_INTERVAL.toNanos()) {
+                    lastReport = now;
+                    long seconds = Math.max(1, Duration.ofNanos(now - start).toSeconds());
+                    log.info("{}: {} lines, {} records, {} links loaded ({} lines/s, {} records/s)",
+                            fileName, linesDone, records, links,
+                            (linesDone - resumeAt) / seconds, records / seconds);
+                }
+            }
+        } finally {
+            reader.interrupt();
+            parsers.shutdownNow();
+        }
+
+        ImportResult result = new ImportResult(kind, resumeAt, linesDone - resumeAt, records, links, malformed,
+                Duration.ofNanos(System.nanoTime() - start));
+        log.info("Imported {}: {} lines, {} {}, {} links, {} malformed lines in {} s ({} lines/s)",
+                fileName, result.lines(), result.records(), kind.name().toLowerCase(), result.links(),
+                result.malformed(), result.elapsed().toSeconds(), result.linesPerSecond());
+        return result;
+    }
+
+    private void read(DumpKind kind, Path file, long skip, ExecutorService parsers,
+                      BlockingQueue<Future<ParsedChunk>> chunks) {
+        try {
+            try (BufferedReader lines = open(file)) {
+                long lineNumber = 0;
+                while (lineNumber < skip && lines.readLine() != null) {
+                    lineNumber++;
+                }
+                int chunkSize = Math.max(1, this.properties.getChunkSize());
+                List<String> chunk = new ArrayList<>(chunkSize);
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    lineNumber++;
+                    chunk.add(line);
+                    if (chunk.size() == chunkSize) {
+                        chunks.put(this.submit(kind, chunk, lineNumber, parsers));
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    chunks.put(this.submit(kind, chunk, lineNumber, parsers));
+                }
+            }
+            chunks.put(END_OF_FILE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // the loader takes this future after the chunks already queued and rethrows
+            try {
+                chunks.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Future<ParsedChunk> submit(DumpKind kind, List<String> lines, long lastLine, ExecutorService parsers) {
+        return parsers.submit(() -> {
+            List<DumpRecord> records = new ArrayList<>(lines.size());
+            int malformed = 0;
+            for (String line : lines) {
+                try {
+                    DumpRecord record = this.parser.parse(kind, line);
+                    if (record != null) {
+                        records.add(record);
+                    }
+                } catch (IOException e) {
+                    malformed++;
+                    log.debug("Skipping malformed dump line: {}", e.getMessage());
+                }
+            }
+            return new ParsedChunk(lastLine, records, malformed);
+        });
+    }
+
+    private static BufferedReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> chunk) throws IOException, InterruptedException {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @param lastLine 1-based number of the last line of the chunk in the file
+     */
+    private record ParsedChunk(long lastLine, List<DumpRecord> records, int malformed) {
+    }
+}
@@ -0,0 +1,19 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+/**
+ * Dump files the importer understands, by the record type it keeps from them.
+ */
+public enum DumpKind {
+    AUTHORS("/type/author"),
+    WORKS("/type/work");
+
+    private final String recordType;
+
+    DumpKind(String recordType) {
+        this.recordType = recordType;
+    }
+
+    public String recordType() {
+        return this.recordType;
+    }
+}
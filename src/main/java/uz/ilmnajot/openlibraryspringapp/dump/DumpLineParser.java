@@ -0,0 +1,204 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses one dump line: type, key, revision, last_modified and the JSON record, tab separated.
+ * The JSON is read token by token and only the fields we store are kept; values are cut to the
+ * column lengths of the schema. Thread-safe, one instance is shared by all parser threads.
+ */
+class DumpLineParser {
+
+    static final int KEY_LENGTH = 255;
+    static final int NAME_LENGTH = 255;
+    static final int TITLE_LENGTH = 255;
+    static final int DESCRIPTION_LENGTH = 5000;
+    static final int SUBJECT_LENGTH = 255;
+
+    private static final String UNKNOWN_TITLE = "Unknown Title";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * @return the record, or null for lines of another type (redirects, deletes, ...) or without a name/key
+     * @throws IOException when a line of the expected type is not valid JSON
+     */
+    DumpRecord parse(DumpKind kind, String line) throws IOException {
+        int typeEnd = line.indexOf('\t');
+        if (typeEnd < 0 || !kind.recordType().equals(line.substring(0, typeEnd))) {
+            return null;
+        }
+        int keyEnd = line.indexOf('\t', typeEnd + 1);
+        int revisionEnd = keyEnd < 0 ? -1 : line.indexOf('\t', keyEnd + 1);
+        int modifiedEnd = revisionEnd < 0 ? -1 : line.indexOf('\t', revisionEnd + 1);
+        if (modifiedEnd < 0) {
+            throw new IOException("Expected 5 tab separated columns");
+        }
+        String key = clean(line.substring(typeEnd + 1, keyEnd), KEY_LENGTH);
+        try (JsonParser parser = this.jsonFactory.createParser(line.substring(modifiedEnd + 1))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Record is not a JSON object");
+            }
+            return kind == DumpKind.AUTHORS ? this.readAuthor(key, parser) : this.readWork(key, parser);
+        }
+    }
+
+    private DumpAuthor readAuthor(String key, JsonParser parser) throws IOException {
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("name".equals(field) && parser.currentToken() == JsonToken.VALUE_STRING) {
+                name = clean(parser.getText(), NAME_LENGTH);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name == null ? null : new DumpAuthor(key, name);
+    }
+
+    private DumpWork readWork(String key, JsonParser parser) throws IOException {
+        String title = UNKNOWN_TITLE;
+        String description = null;
+        List<String> subjects = new ArrayList<>();
+        List<Long> covers = new ArrayList<>();
+        List<String> authorKeys = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "title" -> {
+                    if (value == JsonToken.VALUE_STRING) {
+                        title = clean(parser.getText(), TITLE_LENGTH);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "description" -> description = clean(this.readDescription(parser), DESCRIPTION_LENGTH);
+                case "subjects" -> this.readSubjects(parser, subjects);
+                case "covers" -> this.readCovers(parser, covers);
+                case "authors" -> this.readAuthorKeys(parser, authorKeys);
+                default -> parser.skipChildren();
+            }
+        }
+        return new DumpWork(key, title, description, subjects, covers, authorKeys);
+    }
+
+    /**
+     * Description is either a plain string or {"type": "/type/text", "value": "..."}.
+     */
+    private String readDescription(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String description = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("value".equals(field) && parser.currentToken() == JsonToken.VALUE_STRING) {
+                description = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return description;
+    }
+
+    private void readSubjects(JsonParser parser, List<String> subjects) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                subjects.add(clean(parser.getText(), SUBJECT_LENGTH));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readCovers(JsonParser parser, List<Long> covers) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken().isNumeric()) {
+                covers.add(parser.getValueAsLong());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * authors: [{"author": {"key": "/authors/OL1A"}, "type": ...}, ...]; older records have "author": "/authors/OL1A"
+     */
+    private void readAuthorKeys(JsonParser parser, List<String> authorKeys) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"author".equals(field)) {
+                    parser.skipChildren();
+                } else if (value == JsonToken.VALUE_STRING) {
+                    authorKeys.add(clean(parser.getText(), KEY_LENGTH));
+                } else if (value == JsonToken.START_OBJECT) {
+                    String authorKey = this.readKey(parser);
+                    if (authorKey != null) {
+                        authorKeys.add(authorKey);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private String readKey(JsonParser parser) throws IOException {
+        String key = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("key".equals(field) && parser.currentToken() == JsonToken.VALUE_STRING) {
+                key = clean(parser.getText(), KEY_LENGTH);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Drops NUL characters, which Postgres text columns reject, and cuts the value to the column length
+     */
+    private static String clean(String value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        if (value.indexOf('\0') >= 0) {
+            value = value.replace("\0", "");
+        }
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
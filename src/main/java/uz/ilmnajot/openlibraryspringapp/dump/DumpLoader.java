@@ -0,0 +1,404 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.ilmnajot.openlibraryspringapp.repository.DatabasePlatform;
+import uz.ilmnajot.openlibraryspringapp.repository.PooledIds;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Writes parsed dump chunks into authors / work / work_authors, one transaction per chunk that
+ * also records the checkpoint, so a restarted import continues exactly after the last loaded chunk.
+ * <p>
+ * On Postgres a chunk is streamed with COPY into temp tables and merged with one set-based statement
+ * per table; on H2 the same merge is done with JDBC batches. Existing authors and works are
+ * overwritten with the dump's values, links are only added.
+ */
+@Component
+class DumpLoader {
+
+    private static final String CREATE_AUTHOR_IMPORT = """
+            CREATE TEMP TABLE IF NOT EXISTS author_import (author_id varchar(255), author_name varchar(255))
+            ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY_AUTHORS =
+            "COPY author_import (author_id, author_name) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String POSTGRES_COUNT_NEW_AUTHORS = """
+            SELECT count(DISTINCT i.author_id) FROM author_import i
+            WHERE NOT EXISTS (SELECT 1 FROM authors a WHERE a.author_id = i.author_id)
+            """;
+
+    // existing rows keep their id (the conflict branch ignores it), new ones number into the id array
+    private static final String POSTGRES_MERGE_AUTHORS = """
+            INSERT INTO authors (id, author_id, author_name, fetched_at)
+            SELECT n.id, n.author_id, n.author_name, ?
+            FROM (SELECT COALESCE(a.id, (?::bigint[])[(row_number() OVER (PARTITION BY a.id IS NULL))::int]) AS id,
+                    i.author_id, i.author_name
+                FROM (SELECT DISTINCT ON (author_id) author_id, author_name FROM author_import) i
+                LEFT JOIN authors a ON a.author_id = i.author_id) n
+            ON CONFLICT (author_id) DO UPDATE
+                SET author_name = EXCLUDED.author_name, fetched_at = EXCLUDED.fetched_at,
+                    updated_at = CASE WHEN authors.author_name IS DISTINCT FROM EXCLUDED.author_name
+                        THEN CURRENT_TIMESTAMP ELSE authors.updated_at END
+            """;
+
+    private static final String CREATE_WORK_IMPORT = """
+            CREATE TEMP TABLE IF NOT EXISTS work_import (work_id varchar(255), title varchar(255),
+                description varchar(5000), subjects varchar(255)[], covers bigint[])
+            ON COMMIT DELETE ROWS
+            """;
+
+    private static final String CREATE_WORK_AUTHOR_IMPORT = """
+            CREATE TEMP TABLE IF NOT EXISTS work_author_import (work_id varchar(255), author_id varchar(255))
+            ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY_WORKS =
+            "COPY work_import (work_id, title, description, subjects, covers) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String COPY_WORK_AUTHORS =
+            "COPY work_author_import (work_id, author_id) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String POSTGRES_COUNT_NEW_WORKS = """
+            SELECT count(DISTINCT i.work_id) FROM work_import i
+            WHERE NOT EXISTS (SELECT 1 FROM work w WHERE w.work_id = i.work_id)
+            """;
+
+    private static final String POSTGRES_MERGE_WORKS = """
+            INSERT INTO work (id, work_id, title, description, subjects, covers)
+            SELECT n.id, n.work_id, n.title, n.description, n.subjects, n.covers
+            FROM (SELECT COALESCE(w.id, (?::bigint[])[(row_number() OVER (PARTITION BY w.id IS NULL))::int]) AS id,
+                    i.work_id, i.title, i.description, i.subjects, i.covers
+                FROM (SELECT DISTINCT ON (work_id) * FROM work_import) i
+                LEFT JOIN work w ON w.work_id = i.work_id) n
+            ON CONFLICT (work_id) DO UPDATE
+                SET title = EXCLUDED.title, description = EXCLUDED.description,
+                    subjects = EXCLUDED.subjects, covers = EXCLUDED.covers,
+                    updated_at = CASE WHEN work.title IS DISTINCT FROM EXCLUDED.title
+                            OR work.description IS DISTINCT FROM EXCLUDED.description
+                            OR work.subjects IS DISTINCT FROM EXCLUDED.subjects
+                            OR work.covers IS DISTINCT FROM EXCLUDED.covers
+                        THEN CURRENT_TIMESTAMP ELSE work.updated_at END
+            """;
+
+    private static final String POSTGRES_LINK_WORKS = """
+            INSERT INTO work_authors (work_id, author_id)
+            SELECT DISTINCT w.id, a.id FROM work_author_import i
+            JOIN work w ON w.work_id = i.work_id
+            JOIN authors a ON a.author_id = i.author_id
+            WHERE NOT EXISTS (SELECT 1 FROM work_authors wa WHERE wa.work_id = w.id AND wa.author_id = a.id)
+            """;
+
+    private static final String H2_MERGE_AUTHOR = """
+            MERGE INTO authors t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)),
+                    CAST(? AS TIMESTAMP WITH TIME ZONE)))
+                s(id, author_id, author_name, fetched_at)
+            ON t.author_id = s.author_id
+            WHEN MATCHED THEN UPDATE SET t.author_name = s.author_name, t.fetched_at = s.fetched_at,
+                t.updated_at = CASE WHEN t.author_name IS DISTINCT FROM s.author_name
+                    THEN CURRENT_TIMESTAMP ELSE t.updated_at END
+            WHEN NOT MATCHED THEN INSERT (id, author_id, author_name, fetched_at)
+                VALUES (s.id, s.author_id, s.author_name, s.fetched_at)
+            """;
+
+    private static final String H2_MERGE_WORK = """
+            MERGE INTO work t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)),
+                    CAST(? AS VARCHAR(5000)), CAST(? AS VARCHAR(255) ARRAY), CAST(? AS BIGINT ARRAY)))
+                s(id, work_id, title, description, subjects, covers)
+            ON t.work_id = s.work_id
+            WHEN MATCHED THEN UPDATE SET t.title = s.title, t.description = s.description,
+                t.subjects = s.subjects, t.covers = s.covers,
+                t.updated_at = CASE WHEN t.title IS DISTINCT FROM s.title
+                        OR t.description IS DISTINCT FROM s.description
+                        OR t.subjects IS DISTINCT FROM s.subjects
+                        OR t.covers IS DISTINCT FROM s.covers
+                    THEN CURRENT_TIMESTAMP ELSE t.updated_at END
+            WHEN NOT MATCHED THEN INSERT (id, work_id, title, description, subjects, covers)
+                VALUES (s.id, s.work_id, s.title, s.description, s.subjects, s.covers)
+            """;
+
+    private static final String H2_LINK_WORK = """
+            INSERT INTO work_authors (work_id, author_id)
+            SELECT w.id, a.id FROM work w JOIN authors a ON a.author_id = ?
+            WHERE w.work_id = ?
+            AND NOT EXISTS (SELECT 1 FROM work_authors wa WHERE wa.work_id = w.id AND wa.author_id = a.id)
+            """;
+
+    private static final String SELECT_CHECKPOINT = """
+            SELECT lines_done FROM dump_import_checkpoint
+            WHERE kind = ? AND file_name = ? AND file_size = ? AND file_modified_at = ?
+            """;
+
+    private static final String UPDATE_CHECKPOINT = """
+            UPDATE dump_import_checkpoint SET lines_done = ?, records_loaded = records_loaded + ?, updated_at = ?
+            WHERE kind = ? AND file_name = ? AND file_size = ? AND file_modified_at = ?
+            """;
+
+    private static final String REPLACE_CHECKPOINT = """
+            UPDATE dump_import_checkpoint SET lines_done = ?, records_loaded = ?, updated_at = ?,
+                file_size = ?, file_modified_at = ?
+            WHERE kind = ? AND file_name = ?
+            """;
+
+    private static final String INSERT_CHECKPOINT = """
+            INSERT INTO dump_import_checkpoint
+                (kind, file_name, file_size, file_modified_at, lines_done, records_loaded, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${openlibrary.jdbc.batch-size:100}")
+    private int batchSize;
+
+    private volatile DatabasePlatform platform;
+
+    DumpLoader(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return dump lines of the file already loaded by earlier runs, 0 if none or if the checkpoint
+     * under its name was written for a different file
+     */
+    long linesDone(DumpKind kind, DumpFile file) {
+        List<Long> linesDone = this.jdbcTemplate.queryForList(SELECT_CHECKPOINT, Long.class, kind.name(),
+                file.name(), file.size(), Timestamp.from(file.modifiedAt()));
+        return linesDone.isEmpty() ? 0 : linesDone.get(0);
+    }
+
+    /**
+     * Loads one chunk and moves the file's checkpoint to {@code linesDone} in the same transaction.
+     *
+     * @return the number of work-author links added
+     */
+    int load(DumpKind kind, DumpFile file, List<DumpRecord> records, long linesDone) {
+        Integer links = this.transactionTemplate.execute(status -> {
+            int added = 0;
+            if (!records.isEmpty()) {
+                added = kind == DumpKind.AUTHORS
+                        ? this.loadAuthors(records)
+                        : this.loadWorks(records);
+            }
+            this.saveCheckpoint(kind, file, linesDone, records.size());
+            return added;
+        });
+        return links == null ? 0 : links;
+    }
+
+    private int loadAuthors(List<DumpRecord> records) {
+        Timestamp fetchedAt = Timestamp.from(Instant.now());
+        if (this.platform() == DatabasePlatform.POSTGRESQL) {
+            StringBuilder csv = new StringBuilder(records.size() * 48);
+            for (DumpRecord record : records) {
+                DumpAuthor author = (DumpAuthor) record;
+                csvField(csv, author.key());
+                csv.append(',');
+                csvField(csv, author.name());
+                csv.append('\n');
+            }
+            this.jdbcTemplate.execute(CREATE_AUTHOR_IMPORT);
+            this.copyIn(COPY_AUTHORS, csv);
+            long[] ids = this.newIds(POSTGRES_COUNT_NEW_AUTHORS, "authors_seq");
+            this.jdbcTemplate.update(POSTGRES_MERGE_AUTHORS, ps -> {
+                ps.setTimestamp(1, fetchedAt);
+                ps.setArray(2, ps.getConnection().createArrayOf("bigint", boxed(ids)));
+            });
+        } else {
+            // one id per record; a record matching an existing row leaves its id unused
+            long[] ids = PooledIds.next(this.jdbcTemplate, this.platform(), "authors_seq", records.size());
+            this.jdbcTemplate.batchUpdate(H2_MERGE_AUTHOR, indices(records.size()), this.batchSize, (ps, i) -> {
+                DumpAuthor author = (DumpAuthor) records.get(i);
+                ps.setLong(1, ids[i]);
+                ps.setString(2, author.key());
+                ps.setString(3, author.name());
+                ps.setTimestamp(4, fetchedAt);
+            });
+        }
+        return 0;
+    }
+
+    private int loadWorks(List<DumpRecord> records) {
+        List<String[]> links = new ArrayList<>();
+        for (DumpRecord record : records) {
+            DumpWork work = (DumpWork) record;
+            Set<String> authorKeys = new LinkedHashSet<>(work.authorKeys());
+            for (String authorKey : authorKeys) {
+                links.add(new String[]{work.key(), authorKey});
+            }
+        }
+
+        if (this.platform() == DatabasePlatform.POSTGRESQL) {
+            StringBuilder works = new StringBuilder(records.size() * 256);
+            for (DumpRecord record : records) {
+                DumpWork work = (DumpWork) record;
+                csvField(works, work.key());
+                works.append(',');
+                csvField(works, work.title());
+                works.append(',');
+                csvField(works, work.description());
+                works.append(',');
+                csvField(works, textArray(work.subjects()));
+                works.append(',');
+                csvField(works, work.covers()
+                        .stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(",", "{", "}")));
+                works.append('\n');
+            }
+            StringBuilder workAuthors = new StringBuilder(links.size() * 40);
+            for (String[] link : links) {
+                csvField(workAuthors, link[0]);
+                workAuthors.append(',');
+                csvField(workAuthors, link[1]);
+                workAuthors.append('\n');
+            }
+            this.jdbcTemplate.execute(CREATE_WORK_IMPORT);
+            this.jdbcTemplate.execute(CREATE_WORK_AUTHOR_IMPORT);
+            this.copyIn(COPY_WORKS, works);
+            this.copyIn(COPY_WORK_AUTHORS, workAuthors);
+            long[] ids = this.newIds(POSTGRES_COUNT_NEW_WORKS, "work_seq");
+            this.jdbcTemplate.update(POSTGRES_MERGE_WORKS,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", boxed(ids))));
+            return this.jdbcTemplate.update(POSTGRES_LINK_WORKS);
+        }
+
+        long[] ids = PooledIds.next(this.jdbcTemplate, this.platform(), "work_seq", records.size());
+        this.jdbcTemplate.batchUpdate(H2_MERGE_WORK, indices(records.size()), this.batchSize, (ps, i) -> {
+            DumpWork work = (DumpWork) records.get(i);
+            ps.setLong(1, ids[i]);
+            ps.setString(2, work.key());
+            ps.setString(3, work.title());
+            ps.setString(4, work.description());
+            ps.setArray(5, ps.getConnection().createArrayOf("varchar", work.subjects().toArray()));
+            ps.setArray(6, ps.getConnection().createArrayOf("bigint", work.covers().toArray()));
+        });
+        int[][] linked = this.jdbcTemplate.batchUpdate(H2_LINK_WORK, links, this.batchSize, (ps, link) -> {
+            ps.setString(1, link[1]);
+            ps.setString(2, link[0]);
+        });
+        int added = 0;
+        for (int[] batch : linked) {
+            for (int count : batch) {
+                added += Math.max(count, 0);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * A checkpoint left under the same name by an earlier file is taken over, not added to
+     */
+    private void saveCheckpoint(DumpKind kind, DumpFile file, long linesDone, int records) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp modifiedAt = Timestamp.from(file.modifiedAt());
+        int updated = this.jdbcTemplate.update(UPDATE_CHECKPOINT, linesDone, records, now,
+                kind.name(), file.name(), file.size(), modifiedAt);
+        if (updated == 0) {
+            updated = this.jdbcTemplate.update(REPLACE_CHECKPOINT, linesDone, records, now, file.size(), modifiedAt,
+                    kind.name(), file.name());
+        }
+        if (updated == 0) {
+            this.jdbcTemplate.update(INSERT_CHECKPOINT, kind.name(), file.name(), file.size(), modifiedAt,
+                    linesDone, records, now);
+        }
+    }
+
+    /**
+     * Ids for the rows of the import table not stored yet, counted by {@code countSql}
+     */
+    private long[] newIds(String countSql, String sequence) {
+        Integer count = this.jdbcTemplate.queryForObject(countSql, Integer.class);
+        return PooledIds.next(this.jdbcTemplate, DatabasePlatform.POSTGRESQL, sequence, count == null ? 0 : count);
+    }
+
+    private void copyIn(String sql, CharSequence csv) {
+        this.jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn(sql, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private DatabasePlatform platform() {
+        if (this.platform == null) {
+            this.platform = DatabasePlatform.detect(this.jdbcTemplate);
+        }
+        return this.platform;
+    }
+
+    private static Long[] boxed(long[] values) {
+        return Arrays.stream(values).boxed().toArray(Long[]::new);
+    }
+
+    private static List<Integer> indices(int size) {
+        return IntStream.range(0, size).boxed().toList();
+    }
+
+    /**
+     * Quoted CSV field; null stays an unquoted empty field, which COPY reads as NULL
+     */
+    private static void csvField(StringBuilder csv, String value) {
+        if (value == null) {
+            return;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+
+    /**
+     * Postgres array literal, e.g. {"Fiction","Science \"fact\""}
+     */
+    private static String textArray(List<String> values) {
+        StringBuilder array = new StringBuilder("{");
+        for (String value : values) {
+            if (array.length() > 1) {
+                array.append(',');
+            }
+            array.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    array.append('\\');
+                }
+                array.append(c);
+            }
+            array.append('"');
+        }
+        return array.append('}').toString();
+    }
+}
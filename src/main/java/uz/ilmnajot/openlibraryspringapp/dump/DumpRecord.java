@@ -0,0 +1,7 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+/**
+ * One dump line mapped onto the columns it is loaded into.
+ */
+sealed interface DumpRecord permits DumpAuthor, DumpWork {
+}
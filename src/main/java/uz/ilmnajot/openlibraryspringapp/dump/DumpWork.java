@@ -0,0 +1,14 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import java.util.List;
+
+/**
+ * @param authorKeys OpenLibrary keys of the work's authors, e.g. /authors/OL26320A
+ */
+record DumpWork(String key,
+                String title,
+                String description,
+                List<String> subjects,
+                List<Long> covers,
+                List<String> authorKeys) implements DumpRecord {
+}
@@ -0,0 +1,24 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import java.time.Duration;
+
+/**
+ * @param resumedAt lines skipped because an earlier run had already loaded them
+ * @param lines     lines read in this run
+ * @param records   authors or works loaded
+ * @param links     work-author links added
+ * @param malformed lines of the right type that could not be parsed
+ */
+public record ImportResult(DumpKind kind,
+                           long resumedAt,
+                           long lines,
+                           long records,
+                           long links,
+                           long malformed,
+                           Duration elapsed) {
+
+    public long linesPerSecond() {
+        long millis = Math.max(1, this.elapsed.toMillis());
+        return this.lines * 1000 / millis;
+    }
+}
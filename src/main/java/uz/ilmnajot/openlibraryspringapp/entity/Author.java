@@ -3,6 +3,7 @@ package uz.ilmnajot.openlibraryspringapp.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,8 +16,10 @@ import java.util.List;
 @Table(name = "authors")
 public class Author {
 
+    // pooled sequence (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authors_seq")
+    @SequenceGenerator(name = "authors_seq", sequenceName = "authors_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -24,6 +27,12 @@ public class Author {
 
     private String authorName;
 
+    // when this row was last written from OpenLibrary (search upsert or author lookup)
+    private Instant fetchedAt;
+
+    // when the works of this author (its work_authors links) were last fetched from OpenLibrary
+    private Instant worksRefreshedAt;
+
     // Many-to-Many relationship with Works
     @ManyToMany(mappedBy = "authors")
     private List<Work> works = new ArrayList<>();
@@ -0,0 +1,33 @@
+package uz.ilmnajot.openlibraryspringapp.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Cache validators OpenLibrary sent for one request URL, kept verbatim to be sent back
+ * on the next conditional request.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "upstream_validator")
+public class UpstreamValidator {
+
+    @Id
+    @Column(length = 2048)
+    private String url;
+
+    @Column(length = 512)
+    private String etag;
+
+    // the Last-Modified header as received, an HTTP date
+    @Column(length = 64)
+    private String lastModified;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
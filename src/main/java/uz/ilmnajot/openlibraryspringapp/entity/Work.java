@@ -2,6 +2,10 @@ package uz.ilmnajot.openlibraryspringapp.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,8 +18,10 @@ import java.util.List;
 @Entity
 @Builder
 public class Work {
+    // pooled sequence (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "work_seq")
+    @SequenceGenerator(name = "work_seq", sequenceName = "work_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -27,18 +33,21 @@ public class Work {
     @Column(length = 5000)
     private String description;
 
-    @ElementCollection
-    @CollectionTable(name = "work_subjects", joinColumns = @JoinColumn(name = "work_id"))
-    @Column(name = "subject")
+    // array columns on the work row (varchar(255)[] / bigint[] on Postgres), so a work with its
+    // subjects and covers is read and written as one row instead of one row per element
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "subjects")
     private List<String> subjects = new ArrayList<>();
 
-    @ElementCollection
-    @CollectionTable(name = "work_covers", joinColumns = @JoinColumn(name = "work_id"))
-    @Column(name = "cover_id")
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "covers")
     private List<Long> covers = new ArrayList<>();
 
     // Many-to-Many relationship with Authors
+    // SUBSELECT: the first access loads the authors of every work of the originating query
+    // in one statement, so reading N works costs 2 queries instead of 1 + N
     @ManyToMany
+    @Fetch(FetchMode.SUBSELECT)
     @JoinTable(
             name = "work_authors",
             joinColumns = @JoinColumn(name = "work_id"),
@@ -0,0 +1,31 @@
+package uz.ilmnajot.openlibraryspringapp.health;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import uz.ilmnajot.openlibraryspringapp.model.WarmupStatusResponse;
+import uz.ilmnajot.openlibraryspringapp.service.WarmupService;
+
+/**
+ * "warmup" health contributor, part of the readiness group: OUT_OF_SERVICE until the warm-up
+ * reaches openlibrary.warmup.ready-threshold
+ */
+@RequiredArgsConstructor
+@Component
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupService warmupService;
+
+    @Override
+    public Health health() {
+        WarmupStatusResponse status = this.warmupService.status();
+        Health.Builder builder = status.isReady() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("total", status.getTotal())
+                .withDetail("succeeded", status.getSucceeded())
+                .withDetail("failed", status.getFailed())
+                .withDetail("running", status.isRunning())
+                .build();
+    }
+}
@@ -1,20 +1,29 @@
 package uz.ilmnajot.openlibraryspringapp.mapper;
 
 import org.springframework.stereotype.Component;
+import uz.ilmnajot.openlibraryspringapp.entity.Author;
 import uz.ilmnajot.openlibraryspringapp.entity.Work;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
 import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
 import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class WorkMapper {
 
+    /**
+     * Copies the collections so the lazy authors are initialized here, inside the caller's transaction,
+     * rather than one by one while the response is serialized
+     */
     public WorkResponse toDto(Work work) {
         WorkResponse response = new WorkResponse();
         response.setWorkId(work.getWorkId());
         response.setTitle(work.getTitle());
         response.setDescription(work.getDescription());
-        response.setSubjects(work.getSubjects());
-        response.setCovers(work.getCovers());
+        response.setSubjects(new ArrayList<>(work.getSubjects()));
+        response.setCovers(new ArrayList<>(work.getCovers()));
         response.setAuthors(work
                 .getAuthors()
                 .stream()
@@ -22,4 +31,15 @@ public class WorkMapper {
                 .toList());
         return response;
     }
+
+    public WorkResponse toDto(OpenLibraryWorkDoc doc, Author author) {
+        WorkResponse response = new WorkResponse();
+        response.setWorkId(doc.getKey());
+        response.setTitle(doc.getTitle());
+        response.setDescription(doc.getDescription());
+        response.setSubjects(doc.getSubjects());
+        response.setCovers(doc.getCovers());
+        response.setAuthors(List.of(AuthorResponse.from(author)));
+        return response;
+    }
 }
@@ -0,0 +1,28 @@
+package uz.ilmnajot.openlibraryspringapp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Works of one author in a batch response: the works, or why they could not be loaded
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AuthorWorksResult {
+    private List<WorkResponse> works;
+    private String error;
+
+    public static AuthorWorksResult of(List<WorkResponse> works) {
+        return new AuthorWorksResult(works, null);
+    }
+
+    public static AuthorWorksResult failed(String error) {
+        return new AuthorWorksResult(null, error);
+    }
+}
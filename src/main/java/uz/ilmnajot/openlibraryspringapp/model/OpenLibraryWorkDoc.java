@@ -0,0 +1,19 @@
+package uz.ilmnajot.openlibraryspringapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenLibraryWorkDoc {
+    private String key;
+    private String title;
+    private String description;
+    private List<String> subjects = new ArrayList<>();
+    private List<Long> covers = new ArrayList<>();
+}
@@ -0,0 +1,19 @@
+package uz.ilmnajot.openlibraryspringapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenLibraryWorksPage {
+    private List<OpenLibraryWorkDoc> entries = new ArrayList<>();
+    /**
+     * Path of the next page (links.next), or null on the last page
+     */
+    private String next;
+}
@@ -0,0 +1,13 @@
+package uz.ilmnajot.openlibraryspringapp.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Works stored for one author together with when they were last refreshed from OpenLibrary,
+ * as read for many authors at once.
+ *
+ * @param refreshedAt null for works that never went through a refresh, e.g. loaded from a dump
+ */
+public record StoredWorks(Instant refreshedAt, List<WorkResponse> works) {
+}
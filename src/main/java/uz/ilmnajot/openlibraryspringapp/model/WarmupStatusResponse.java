@@ -0,0 +1,20 @@
+package uz.ilmnajot.openlibraryspringapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WarmupStatusResponse {
+    private boolean running;
+    private boolean ready;
+    private int total;
+    private int succeeded;
+    private int failed;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,14 @@
+package uz.ilmnajot.openlibraryspringapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorksBatchRequest {
+    private List<String> authorIds;
+}
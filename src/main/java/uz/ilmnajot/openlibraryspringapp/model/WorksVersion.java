@@ -0,0 +1,15 @@
+package uz.ilmnajot.openlibraryspringapp.model;
+
+import java.time.Instant;
+
+/**
+ * What the stored works of one author look like without reading them: when they were last
+ * refreshed from OpenLibrary, how many (work, author) links make up the response and when the
+ * newest of those works and authors last changed.
+ *
+ * @param refreshedAt null for works that never went through a refresh, e.g. loaded from a dump
+ * @param linkCount   links of the author's works to all their authors, co-authors included
+ * @param updatedAt   latest updated_at of the author's works and of their authors
+ */
+public record WorksVersion(Instant refreshedAt, long linkCount, Instant updatedAt) {
+}
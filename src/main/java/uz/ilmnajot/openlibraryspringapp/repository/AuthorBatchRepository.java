@@ -0,0 +1,17 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import uz.ilmnajot.openlibraryspringapp.entity.Author;
+
+import java.util.List;
+
+public interface AuthorBatchRepository {
+
+    /**
+     * Inserts or updates the given authors by authorId in one JDBC batch.
+     * Rows inserted concurrently by another request are updated instead of failing the batch.
+     * fetched_at is set to the author's fetchedAt, or to now when it is not set.
+     *
+     * @return the stored authors, in the order of the given list, without duplicates
+     */
+    List<Author> upsertAll(List<Author> authors);
+}
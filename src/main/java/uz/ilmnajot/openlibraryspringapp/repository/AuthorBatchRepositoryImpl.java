@@ -0,0 +1,131 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import uz.ilmnajot.openlibraryspringapp.entity.Author;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class AuthorBatchRepositoryImpl implements AuthorBatchRepository {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO authors (id, author_id, author_name, fetched_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (author_id) DO UPDATE
+                SET author_name = EXCLUDED.author_name, fetched_at = EXCLUDED.fetched_at,
+                    updated_at = CASE WHEN authors.author_name IS DISTINCT FROM EXCLUDED.author_name
+                        THEN CURRENT_TIMESTAMP ELSE authors.updated_at END
+            """;
+
+    private static final String H2_UPSERT = """
+            MERGE INTO authors t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)),
+                    CAST(? AS TIMESTAMP WITH TIME ZONE)))
+                s(id, author_id, author_name, fetched_at)
+            ON t.author_id = s.author_id
+            WHEN MATCHED THEN UPDATE SET t.author_name = s.author_name, t.fetched_at = s.fetched_at,
+                t.updated_at = CASE WHEN t.author_name IS DISTINCT FROM s.author_name
+                    THEN CURRENT_TIMESTAMP ELSE t.updated_at END
+            WHEN NOT MATCHED THEN INSERT (id, author_id, author_name, fetched_at)
+                VALUES (s.id, s.author_id, s.author_name, s.fetched_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${openlibrary.jdbc.batch-size:100}")
+    private int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile DatabasePlatform platform;
+
+    @Override
+    @Transactional
+    public List<Author> upsertAll(List<Author> authors) {
+        // last one wins for duplicate keys, but keep first-seen order
+        Map<String, Author> byAuthorId = new LinkedHashMap<>();
+        for (Author author : authors) {
+            if (author.getAuthorId() != null) {
+                byAuthorId.put(author.getAuthorId(), author);
+            }
+        }
+        if (byAuthorId.isEmpty()) {
+            return List.of();
+        }
+
+        // existing rows keep their id (the conflict branch ignores it), only new ones take sequence ids
+        Map<String, Long> ids = this.findIdsByAuthorIds(byAuthorId.keySet());
+        List<String> newAuthorIds = byAuthorId.keySet()
+                .stream()
+                .filter(authorId -> !ids.containsKey(authorId))
+                .toList();
+        long[] newIds = PooledIds.next(this.jdbcTemplate, this.platform(), "authors_seq", newAuthorIds.size());
+        for (int i = 0; i < newIds.length; i++) {
+            ids.put(newAuthorIds.get(i), newIds[i]);
+        }
+
+        List<Author> rows = new ArrayList<>(byAuthorId.values());
+        Timestamp fetchedAt = Timestamp.from(Instant.now());
+        this.jdbcTemplate.batchUpdate(this.upsertSql(), rows, this.batchSize, (ps, author) -> {
+            ps.setLong(1, ids.get(author.getAuthorId()));
+            ps.setString(2, author.getAuthorId());
+            ps.setString(3, author.getAuthorName());
+            ps.setTimestamp(4, author.getFetchedAt() == null ? fetchedAt : Timestamp.from(author.getFetchedAt()));
+        });
+
+        Map<String, Author> stored = this.entityManager
+                .createQuery("select a from Author a where a.authorId in :authorIds", Author.class)
+                .setParameter("authorIds", byAuthorId.keySet())
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(Author::getAuthorId, Function.identity()));
+
+        return byAuthorId.keySet()
+                .stream()
+                .map(stored::get)
+                .toList();
+    }
+
+    private Map<String, Long> findIdsByAuthorIds(Collection<String> authorIds) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> all = new ArrayList<>(authorIds);
+        for (int from = 0; from < all.size(); from += WorkBatchRepositoryImpl.IN_CHUNK_SIZE) {
+            List<String> chunk = all.subList(from, Math.min(from + WorkBatchRepositoryImpl.IN_CHUNK_SIZE, all.size()));
+            String sql = "SELECT id, author_id FROM authors WHERE author_id IN ("
+                    + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            this.jdbcTemplate.query(sql,
+                    rs -> {
+                        ids.put(rs.getString("author_id"), rs.getLong("id"));
+                    },
+                    chunk.toArray());
+        }
+        return ids;
+    }
+
+    private String upsertSql() {
+        return this.platform() == DatabasePlatform.POSTGRESQL ? POSTGRES_UPSERT : H2_UPSERT;
+    }
+
+    private DatabasePlatform platform() {
+        if (this.platform == null) {
+            this.platform = DatabasePlatform.detect(this.jdbcTemplate);
+        }
+        return this.platform;
+    }
+}
@@ -0,0 +1,26 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+
+import java.util.List;
+
+public interface AuthorReadRepository {
+
+    /**
+     * Case-insensitive substring search on author_name, the first {@code limit} rows by name
+     * (ties by author_id, so the cut is the same on every call), read with
+     * plain JDBC straight into responses in a read-only transaction, without loading Author
+     * entities. On Postgres the ILIKE is served by the pg_trgm GIN index
+     * idx_authors_author_name_trgm; H2 runs the same statement as a scan.
+     */
+    List<AuthorResponse> searchResponsesByName(String name, int limit);
+
+    /**
+     * ILIKE pattern matching the value anywhere, with LIKE wildcards in it escaped by '\'
+     */
+    static String containsPattern(String value) {
+        return "%" + value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,30 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class AuthorReadRepositoryImpl implements AuthorReadRepository {
+
+    private static final String SEARCH_BY_NAME = """
+            SELECT author_id, author_name
+            FROM authors
+            WHERE author_name ILIKE ? ESCAPE '\\'
+            ORDER BY author_name, author_id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorResponse> searchResponsesByName(String name, int limit) {
+        return this.jdbcTemplate.query(SEARCH_BY_NAME,
+                (rs, rowNum) -> new AuthorResponse(rs.getString("author_id"), rs.getString("author_name")),
+                AuthorReadRepository.containsPattern(name), limit);
+    }
+}
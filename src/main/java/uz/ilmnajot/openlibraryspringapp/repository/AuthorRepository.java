@@ -1,15 +1,61 @@
 package uz.ilmnajot.openlibraryspringapp.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import uz.ilmnajot.openlibraryspringapp.entity.Author;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AuthorRepository extends JpaRepository<Author, String> {
-    List<Author> findByAuthorNameContainingIgnoreCase(String name);
-
+public interface AuthorRepository extends JpaRepository<Author, String>, AuthorBatchRepository, AuthorReadRepository {
     Optional<Author> findByAuthorId(String authorId);
+
+    /**
+     * Id and name of every author, streamed for building the in-memory prefix index.
+     * Must be consumed inside a transaction and closed.
+     */
+    @Query("select new uz.ilmnajot.openlibraryspringapp.model.AuthorResponse(a.authorId, a.authorName) from Author a")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<AuthorResponse> streamAllNames();
+
+    @Query("select a.worksRefreshedAt from Author a where a.authorId = :authorId")
+    Optional<Instant> findWorksRefreshedAt(@Param("authorId") String authorId);
+
+    /**
+     * Fetch time of the least recently fetched of the given authors, empty if none is recorded
+     */
+    @Query("select min(a.fetchedAt) from Author a where a.authorId in :authorIds")
+    Optional<Instant> findOldestFetchedAt(@Param("authorIds") Collection<String> authorIds);
+
+    @Modifying
+    @Transactional
+    @Query("update Author a set a.worksRefreshedAt = :refreshedAt where a.id = :id")
+    int markWorksRefreshed(@Param("id") Long id, @Param("refreshedAt") Instant refreshedAt);
+
+    /**
+     * Confirms the given authors as current without rewriting them, after OpenLibrary answered 304
+     */
+    @Modifying
+    @Transactional
+    @Query("update Author a set a.fetchedAt = :fetchedAt where a.authorId in :authorIds")
+    int markFetched(@Param("authorIds") Collection<String> authorIds, @Param("fetchedAt") Instant fetchedAt);
+
+    /**
+     * Authors whose works were fetched most recently, i.e. the ones users asked for lately
+     */
+    @Query("select a.authorId from Author a where a.worksRefreshedAt is not null order by a.worksRefreshedAt desc")
+    List<String> findRecentlyRefreshedAuthorIds(Pageable pageable);
 }
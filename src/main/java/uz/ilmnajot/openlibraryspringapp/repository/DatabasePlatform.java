@@ -0,0 +1,24 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Databases the hand-written batch SQL in the repository fragments is written for.
+ */
+public enum DatabasePlatform {
+    POSTGRESQL,
+    H2;
+
+    public static DatabasePlatform detect(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equalsIgnoreCase(product)) {
+            return POSTGRESQL;
+        }
+        if ("H2".equalsIgnoreCase(product)) {
+            return H2;
+        }
+        throw new IllegalStateException("Unsupported database for batch SQL: " + product);
+    }
+}
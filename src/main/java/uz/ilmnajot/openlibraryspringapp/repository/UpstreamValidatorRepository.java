@@ -0,0 +1,9 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import uz.ilmnajot.openlibraryspringapp.entity.UpstreamValidator;
+
+@Repository
+public interface UpstreamValidatorRepository extends JpaRepository<UpstreamValidator, String> {
+}
@@ -0,0 +1,38 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import uz.ilmnajot.openlibraryspringapp.entity.Author;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WorkBatchRepository {
+
+    /**
+     * Stores works fetched from OpenLibrary using set-based statements: existing works are
+     * resolved with chunked IN queries, and the works (with their subjects and covers in array
+     * columns of the same row) are written in JDBC batches. Works that already exist are updated
+     * to the fetched data; their updated_at only moves when a shown value actually differs.
+     * No author is linked: until {@link #linkWorks} runs, the works are not read as anyone's.
+     *
+     * @return the number of newly inserted works
+     */
+    int upsertWorks(List<OpenLibraryWorkDoc> docs);
+
+    /**
+     * Links the author to those of the given stored works it is not linked to yet, in one JDBC batch.
+     *
+     * @param author a persisted author
+     * @return the number of links added
+     */
+    int linkWorks(Author author, Collection<String> workIds);
+
+    /**
+     * Removes the author's links to works that are not in {@code workIds}, for a refresh that has
+     * read the author's complete upstream list. The works themselves stay, co-authors may link them.
+     *
+     * @param author a persisted author
+     * @return the number of links removed
+     */
+    int unlinkWorksExcept(Author author, Collection<String> workIds);
+}
@@ -0,0 +1,204 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import uz.ilmnajot.openlibraryspringapp.entity.Author;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class WorkBatchRepositoryImpl implements WorkBatchRepository {
+
+    static final int IN_CHUNK_SIZE = 500;
+
+    private static final int TITLE_LENGTH = 255;
+    private static final int DESCRIPTION_LENGTH = 5000;
+    private static final int SUBJECT_LENGTH = 255;
+
+    private static final String POSTGRES_UPSERT_WORK = """
+            INSERT INTO work (id, work_id, title, description, subjects, covers)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (work_id) DO UPDATE
+                SET title = EXCLUDED.title, description = EXCLUDED.description,
+                    subjects = EXCLUDED.subjects, covers = EXCLUDED.covers,
+                    updated_at = CASE WHEN work.title IS DISTINCT FROM EXCLUDED.title
+                            OR work.description IS DISTINCT FROM EXCLUDED.description
+                            OR work.subjects IS DISTINCT FROM EXCLUDED.subjects
+                            OR work.covers IS DISTINCT FROM EXCLUDED.covers
+                        THEN CURRENT_TIMESTAMP ELSE work.updated_at END
+            """;
+
+    private static final String H2_UPSERT_WORK = """
+            MERGE INTO work t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)),
+                    CAST(? AS VARCHAR(5000)), CAST(? AS VARCHAR(255) ARRAY), CAST(? AS BIGINT ARRAY)))
+                s(id, work_id, title, description, subjects, covers)
+            ON t.work_id = s.work_id
+            WHEN MATCHED THEN UPDATE SET t.title = s.title, t.description = s.description,
+                t.subjects = s.subjects, t.covers = s.covers,
+                t.updated_at = CASE WHEN t.title IS DISTINCT FROM s.title
+                        OR t.description IS DISTINCT FROM s.description
+                        OR t.subjects IS DISTINCT FROM s.subjects
+                        OR t.covers IS DISTINCT FROM s.covers
+                    THEN CURRENT_TIMESTAMP ELSE t.updated_at END
+            WHEN NOT MATCHED THEN INSERT (id, work_id, title, description, subjects, covers)
+                VALUES (s.id, s.work_id, s.title, s.description, s.subjects, s.covers)
+            """;
+
+    private static final String INSERT_AUTHOR_LINK = "INSERT INTO work_authors (work_id, author_id) VALUES (?, ?)";
+
+    private static final String SELECT_LINKED_WORKS = """
+            SELECT w.id, w.work_id FROM work_authors wa
+            JOIN work w ON w.id = wa.work_id
+            WHERE wa.author_id = ?
+            """;
+
+    private static final String DELETE_AUTHOR_LINK = "DELETE FROM work_authors WHERE work_id = ? AND author_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${openlibrary.jdbc.batch-size:100}")
+    private int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile DatabasePlatform platform;
+
+    @Override
+    @Transactional
+    public int upsertWorks(List<OpenLibraryWorkDoc> docs) {
+        Map<String, OpenLibraryWorkDoc> byWorkId = new LinkedHashMap<>();
+        for (OpenLibraryWorkDoc doc : docs) {
+            if (doc.getKey() != null) {
+                byWorkId.putIfAbsent(doc.getKey(), doc);
+            }
+        }
+        if (byWorkId.isEmpty()) {
+            return 0;
+        }
+        // plain JDBC below writes work rows, so pending JPA inserts must be written first
+        this.entityManager.flush();
+
+        Map<String, Long> existingIds = this.findIdsByWorkIds(byWorkId.keySet());
+        List<OpenLibraryWorkDoc> newDocs = byWorkId.values()
+                .stream()
+                .filter(doc -> !existingIds.containsKey(doc.getKey()))
+                .toList();
+
+        // stored works keep their id (the conflict branch ignores it), only new ones take sequence ids
+        Map<String, Long> ids = new HashMap<>(existingIds);
+        long[] newIds = PooledIds.next(this.jdbcTemplate, this.platform(), "work_seq", newDocs.size());
+        for (int i = 0; i < newIds.length; i++) {
+            ids.put(newDocs.get(i).getKey(), newIds[i]);
+        }
+        this.jdbcTemplate.batchUpdate(this.upsertWorkSql(), byWorkId.values(), this.batchSize, (ps, doc) -> {
+            ps.setLong(1, ids.get(doc.getKey()));
+            ps.setString(2, doc.getKey());
+            ps.setString(3, truncate(doc.getTitle(), TITLE_LENGTH));
+            ps.setString(4, truncate(doc.getDescription(), DESCRIPTION_LENGTH));
+            ps.setArray(5, ps.getConnection().createArrayOf("varchar", subjectsOf(doc)));
+            ps.setArray(6, ps.getConnection().createArrayOf("bigint", nullToEmpty(doc.getCovers()).toArray()));
+        });
+        return newDocs.size();
+    }
+
+    @Override
+    @Transactional
+    public int linkWorks(Author author, Collection<String> workIds) {
+        // plain JDBC below references the author row, so pending JPA inserts must be written first
+        this.entityManager.flush();
+
+        // a work inserted concurrently kept its own id, so the ids are read by key
+        Set<Long> linked = this.findWorkIdsLinkedTo(author.getId());
+        List<Long> toLink = this.findIdsByWorkIds(workIds)
+                .values()
+                .stream()
+                .filter(id -> !linked.contains(id))
+                .toList();
+        this.jdbcTemplate.batchUpdate(INSERT_AUTHOR_LINK, toLink, this.batchSize, (ps, workId) -> {
+            ps.setLong(1, workId);
+            ps.setLong(2, author.getId());
+        });
+        return toLink.size();
+    }
+
+    @Override
+    @Transactional
+    public int unlinkWorksExcept(Author author, Collection<String> workIds) {
+        Set<String> keep = new HashSet<>(workIds);
+        List<Long> toUnlink = new ArrayList<>();
+        this.jdbcTemplate.query(SELECT_LINKED_WORKS,
+                rs -> {
+                    if (!keep.contains(rs.getString("work_id"))) {
+                        toUnlink.add(rs.getLong("id"));
+                    }
+                },
+                author.getId());
+        this.jdbcTemplate.batchUpdate(DELETE_AUTHOR_LINK, toUnlink, this.batchSize, (ps, workId) -> {
+            ps.setLong(1, workId);
+            ps.setLong(2, author.getId());
+        });
+        return toUnlink.size();
+    }
+
+    private Map<String, Long> findIdsByWorkIds(Collection<String> workIds) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> all = new ArrayList<>(workIds);
+        for (int from = 0; from < all.size(); from += IN_CHUNK_SIZE) {
+            List<String> chunk = all.subList(from, Math.min(from + IN_CHUNK_SIZE, all.size()));
+            String sql = "SELECT id, work_id FROM work WHERE work_id IN ("
+                    + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            this.jdbcTemplate.query(sql,
+                    rs -> {
+                        ids.put(rs.getString("work_id"), rs.getLong("id"));
+                    },
+                    chunk.toArray());
+        }
+        return ids;
+    }
+
+    private Set<Long> findWorkIdsLinkedTo(Long authorId) {
+        return new HashSet<>(this.jdbcTemplate.queryForList(
+                "SELECT work_id FROM work_authors WHERE author_id = ?", Long.class, authorId));
+    }
+
+    private String upsertWorkSql() {
+        return this.platform() == DatabasePlatform.POSTGRESQL ? POSTGRES_UPSERT_WORK : H2_UPSERT_WORK;
+    }
+
+    private DatabasePlatform platform() {
+        if (this.platform == null) {
+            this.platform = DatabasePlatform.detect(this.jdbcTemplate);
+        }
+        return this.platform;
+    }
+
+    private static Object[] subjectsOf(OpenLibraryWorkDoc doc) {
+        return nullToEmpty(doc.getSubjects())
+                .stream()
+                .map(subject -> truncate(subject, SUBJECT_LENGTH))
+                .toArray();
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
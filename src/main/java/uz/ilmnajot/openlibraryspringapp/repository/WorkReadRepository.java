@@ -0,0 +1,55 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import uz.ilmnajot.openlibraryspringapp.model.StoredWorks;
+import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface WorkReadRepository {
+
+    /**
+     * Works of an author, read with plain JDBC straight into responses in a read-only
+     * transaction: one query for the works, whose subjects and covers are array columns of the
+     * same row, plus one for their authors.
+     * No entities are loaded, so there is no persistence-context snapshot or dirty checking.
+     *
+     * @param authorId normalized OpenLibrary author key, e.g. /authors/OL1394244A
+     */
+    List<WorkResponse> findResponsesByAuthorId(String authorId);
+
+    /**
+     * Works of many authors at once, set-based: one query for the works of all of them together
+     * with each author's refresh time, one for the authors of those works. A work shared by two of
+     * the authors is read once and appears under both.
+     *
+     * @param authorIds normalized OpenLibrary author keys; callers keep the list short, it becomes
+     *                  one IN list
+     * @return keyed by author key; authors without stored works are absent
+     */
+    Map<String, StoredWorks> findStoredWorksByAuthorIds(Collection<String> authorIds);
+
+    /**
+     * Same works in the same order, handed to the sink one at a time, read in keyset pages of
+     * works joined to their authors so memory stays flat whatever the catalog size. Each page is
+     * its own short query: no connection or transaction is held while the sink writes, so a
+     * slow client cannot pin one. Works stored while the stream runs may or may not be included.
+     *
+     * @return number of works handed over
+     */
+    long streamResponsesByAuthorId(String authorId, Consumer<WorkResponse> sink);
+
+    /**
+     * One aggregate over the author row, its work_authors links, those works and every author
+     * linked to them: the refresh time, the number of (work, author) links and the latest
+     * updated_at of the works and their authors. Only ids and timestamps are aggregated; no
+     * work is mapped into a response.
+     *
+     * @return empty when no works are stored for the author
+     */
+    Optional<WorksVersion> findWorksVersion(String authorId);
+}
@@ -0,0 +1,260 @@
+package uz.ilmnajot.openlibraryspringapp.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.model.StoredWorks;
+import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class WorkReadRepositoryImpl implements WorkReadRepository {
+
+    private static final String WORK_IDS_OF_AUTHOR = """
+            SELECT wa.work_id FROM work_authors wa
+            JOIN authors a ON a.id = wa.author_id
+            WHERE a.author_id = ?
+            """;
+
+    private static final String SELECT_WORKS = """
+            SELECT w.id, w.work_id, w.title, w.description, w.subjects, w.covers FROM work w
+            WHERE w.id IN (%s)
+            ORDER BY w.id
+            """.formatted(WORK_IDS_OF_AUTHOR);
+
+    private static final String SELECT_AUTHORS = """
+            SELECT wa.work_id, a.author_id, a.author_name FROM work_authors wa
+            JOIN authors a ON a.id = wa.author_id
+            WHERE wa.work_id IN (%s)
+            ORDER BY a.id
+            """.formatted(WORK_IDS_OF_AUTHOR);
+
+    private static final String SELECT_WORKS_OF_AUTHORS = """
+            SELECT a.author_id AS owner_id, a.works_refreshed_at,
+                   w.id, w.work_id, w.title, w.description, w.subjects, w.covers FROM authors a
+            JOIN work_authors wa ON wa.author_id = a.id
+            JOIN work w ON w.id = wa.work_id
+            WHERE a.author_id IN (%s)
+            ORDER BY a.author_id, w.id
+            """;
+
+    private static final String SELECT_AUTHORS_OF_WORKS = """
+            SELECT wa.work_id, a.author_id, a.author_name FROM work_authors wa
+            JOIN authors a ON a.id = wa.author_id
+            WHERE wa.work_id IN (
+                SELECT owa.work_id FROM work_authors owa
+                JOIN authors oa ON oa.id = owa.author_id
+                WHERE oa.author_id IN (%s))
+            ORDER BY a.id
+            """;
+
+    // one page of works after the last id handed over, keyset-seeked on (author_id, work_id)
+    private static final String STREAM_WORKS_PAGE = """
+            SELECT w.id, w.work_id, w.title, w.description, w.subjects, w.covers, a.author_id, a.author_name
+            FROM work w
+            JOIN work_authors wa ON wa.work_id = w.id
+            JOIN authors a ON a.id = wa.author_id
+            WHERE w.id IN (
+                SELECT owa.work_id FROM work_authors owa
+                JOIN authors oa ON oa.id = owa.author_id
+                WHERE oa.author_id = ? AND owa.work_id > ?
+                ORDER BY owa.work_id
+                FETCH FIRST ? ROWS ONLY)
+            ORDER BY w.id, a.id
+            """;
+
+    // every (work, co-author) pair of the response, so a new co-author or a renamed one counts too
+    private static final String SELECT_WORKS_VERSION = """
+            SELECT a.works_refreshed_at, COUNT(*) AS link_count,
+                   MAX(w.updated_at) AS works_updated_at, MAX(ca.updated_at) AS authors_updated_at
+            FROM authors a
+            JOIN work_authors wa ON wa.author_id = a.id
+            JOIN work w ON w.id = wa.work_id
+            JOIN work_authors cwa ON cwa.work_id = w.id
+            JOIN authors ca ON ca.id = cwa.author_id
+            WHERE a.author_id = ?
+            GROUP BY a.id, a.works_refreshed_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${openlibrary.works.stream.page-size:500}")
+    private int streamPageSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<WorkResponse> findResponsesByAuthorId(String authorId) {
+        Map<Long, WorkResponse> works = new LinkedHashMap<>();
+        this.jdbcTemplate.query(SELECT_WORKS, rs -> {
+            works.put(rs.getLong("id"), new WorkResponse(
+                    rs.getString("work_id"),
+                    rs.getString("title"),
+                    rs.getString("description"),
+                    toList(rs.getArray("subjects"), String.class),
+                    toList(rs.getArray("covers"), Long.class),
+                    new ArrayList<>()));
+        }, authorId);
+        if (works.isEmpty()) {
+            return List.of();
+        }
+
+        this.jdbcTemplate.query(SELECT_AUTHORS, rs -> {
+            WorkResponse work = works.get(rs.getLong("work_id"));
+            if (work != null) {
+                work.getAuthors().add(new AuthorResponse(rs.getString("author_id"), rs.getString("author_name")));
+            }
+        }, authorId);
+        return new ArrayList<>(works.values());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, StoredWorks> findStoredWorksByAuthorIds(Collection<String> authorIds) {
+        if (authorIds.isEmpty()) {
+            return Map.of();
+        }
+        Object[] args = authorIds.toArray();
+        String placeholders = String.join(",", Collections.nCopies(args.length, "?"));
+
+        Map<Long, WorkResponse> works = new HashMap<>();
+        Map<String, StoredWorks> stored = new LinkedHashMap<>();
+        this.jdbcTemplate.query(SELECT_WORKS_OF_AUTHORS.formatted(placeholders), rs -> {
+            long id = rs.getLong("id");
+            WorkResponse work = works.get(id);
+            if (work == null) {
+                work = new WorkResponse(
+                        rs.getString("work_id"),
+                        rs.getString("title"),
+                        rs.getString("description"),
+                        toList(rs.getArray("subjects"), String.class),
+                        toList(rs.getArray("covers"), Long.class),
+                        new ArrayList<>());
+                works.put(id, work);
+            }
+            Timestamp refreshedAt = rs.getTimestamp("works_refreshed_at");
+            stored.computeIfAbsent(rs.getString("owner_id"), owner -> new StoredWorks(
+                            refreshedAt == null ? null : refreshedAt.toInstant(), new ArrayList<>()))
+                    .works()
+                    .add(work);
+        }, args);
+        if (works.isEmpty()) {
+            return Map.of();
+        }
+
+        this.jdbcTemplate.query(SELECT_AUTHORS_OF_WORKS.formatted(placeholders), rs -> {
+            WorkResponse work = works.get(rs.getLong("work_id"));
+            if (work != null) {
+                work.getAuthors().add(new AuthorResponse(rs.getString("author_id"), rs.getString("author_name")));
+            }
+        }, args);
+        return stored;
+    }
+
+    @Override
+    public long streamResponsesByAuthorId(String authorId, Consumer<WorkResponse> sink) {
+        long count = 0;
+        long afterId = 0;
+        while (true) {
+            // read the page, give the connection back, only then write to the (maybe slow) sink
+            List<WorkResponse> page = new ArrayList<>(this.streamPageSize);
+            WorkRows rows = new WorkRows(page::add);
+            this.jdbcTemplate.query(STREAM_WORKS_PAGE, rows::add, authorId, afterId, this.streamPageSize);
+            rows.finish();
+            page.forEach(sink);
+            count += page.size();
+            if (page.size() < this.streamPageSize) {
+                return count;
+            }
+            afterId = rows.lastId();
+        }
+    }
+
+    @Override
+    public Optional<WorksVersion> findWorksVersion(String authorId) {
+        return this.jdbcTemplate.query(SELECT_WORKS_VERSION, (rs, rowNum) -> {
+            Timestamp refreshedAt = rs.getTimestamp("works_refreshed_at");
+            Instant worksUpdatedAt = rs.getTimestamp("works_updated_at").toInstant();
+            Instant authorsUpdatedAt = rs.getTimestamp("authors_updated_at").toInstant();
+            return new WorksVersion(refreshedAt == null ? null : refreshedAt.toInstant(), rs.getLong("link_count"),
+                    worksUpdatedAt.isAfter(authorsUpdatedAt) ? worksUpdatedAt : authorsUpdatedAt);
+        }, authorId).stream().findFirst();
+    }
+
+    /**
+     * Folds the (work, author) rows of the streaming query, ordered by work, back into one
+     * response per work, handing each over once its last author row has been read
+     */
+    private static final class WorkRows {
+
+        private final Consumer<WorkResponse> sink;
+        private long currentId;
+        private WorkResponse current;
+        private long count;
+
+        WorkRows(Consumer<WorkResponse> sink) {
+            this.sink = sink;
+        }
+
+        void add(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (this.current == null || id != this.currentId) {
+                this.emit();
+                this.currentId = id;
+                this.current = new WorkResponse(
+                        rs.getString("work_id"),
+                        rs.getString("title"),
+                        rs.getString("description"),
+                        toList(rs.getArray("subjects"), String.class),
+                        toList(rs.getArray("covers"), Long.class),
+                        new ArrayList<>());
+            }
+            this.current.getAuthors().add(new AuthorResponse(rs.getString("author_id"), rs.getString("author_name")));
+        }
+
+        long finish() {
+            this.emit();
+            return this.count;
+        }
+
+        long lastId() {
+            return this.currentId;
+        }
+
+        private void emit() {
+            if (this.current != null) {
+                this.sink.accept(this.current);
+                this.current = null;
+                this.count++;
+            }
+        }
+    }
+
+    private static <T> List<T> toList(Array array, Class<T> elementType) throws SQLException {
+        List<T> list = new ArrayList<>();
+        if (array == null) {
+            return list;
+        }
+        for (Object element : (Object[]) array.getArray()) {
+            list.add(elementType.cast(element));
+        }
+        array.free();
+        return list;
+    }
+}
@@ -8,7 +8,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface WorkRepository extends JpaRepository<Work, Long>{
+public interface WorkRepository extends JpaRepository<Work, Long>, WorkBatchRepository, WorkReadRepository {
 
     Optional<Work> findByWorkId(String workKey);
 
@@ -5,5 +5,12 @@ import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
 import java.util.List;
 
 public interface AuthorService {
+    /**
+     * Authors whose name contains {@code name}, ignoring case. When stored authors match, at most
+     * {@code openlibrary.author-search.max-results} of them are returned, ordered by name; otherwise
+     * OpenLibrary's results are stored and returned in its order.
+     */
     List<AuthorResponse> searchAuthor(String name);
+
+    List<AuthorResponse> suggestAuthors(String prefix, int limit);
 }
@@ -0,0 +1,11 @@
+package uz.ilmnajot.openlibraryspringapp.service;
+
+import uz.ilmnajot.openlibraryspringapp.model.WarmupStatusResponse;
+
+public interface WarmupService {
+    WarmupStatusResponse start();
+
+    WarmupStatusResponse status();
+
+    boolean isReady();
+}
@@ -1,9 +1,40 @@
 package uz.ilmnajot.openlibraryspringapp.service;
 
+import uz.ilmnajot.openlibraryspringapp.model.AuthorWorksResult;
 import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface WorkService {
     List<WorkResponse> getWorksByAuthor(String authorId);
+
+    /**
+     * {@link #getWorksByAuthor} for many authors in one call. Stored works of all of them are read
+     * with one set-based query; only authors with nothing stored, or past the hard TTL, go to
+     * OpenLibrary, in parallel on a bounded executor. An author that fails gets an error in its
+     * result instead of failing the whole batch.
+     *
+     * @return keyed by the author ids as requested, in request order, duplicates once
+     */
+    Map<String, AuthorWorksResult> getWorksByAuthors(List<String> authorIds);
+
+    /**
+     * Version of the works {@link #getWorksByAuthor} would serve from the database right now,
+     * empty when it would have to go to OpenLibrary first (nothing stored, or past the hard TTL).
+     * A stale version still counts and queues the same background refresh a full read would.
+     */
+    Optional<WorksVersion> currentWorksVersion(String authorId);
+
+    /**
+     * Stored works of the author handed to the sink one at a time, read a page of works per query,
+     * so memory stays flat whatever their number. Never goes to OpenLibrary: check
+     * {@link #currentWorksVersion} first and fall back to {@link #getWorksByAuthor} when it is empty.
+     *
+     * @return number of works handed over
+     */
+    long streamStoredWorks(String authorId, Consumer<WorkResponse> sink);
 }
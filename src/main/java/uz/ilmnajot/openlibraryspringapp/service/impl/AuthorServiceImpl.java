@@ -4,7 +4,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import uz.ilmnajot.openlibraryspringapp.cache.AuthorPrefixIndex;
+import uz.ilmnajot.openlibraryspringapp.cache.AuthorSearchCache;
+import uz.ilmnajot.openlibraryspringapp.cache.BackgroundRefresher;
+import uz.ilmnajot.openlibraryspringapp.cache.FreshnessPolicy;
+import uz.ilmnajot.openlibraryspringapp.client.OpenLibraryClient;
+import uz.ilmnajot.openlibraryspringapp.client.UpstreamResponse;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
+import uz.ilmnajot.openlibraryspringapp.concurrent.SingleFlight;
 import uz.ilmnajot.openlibraryspringapp.entity.Author;
 import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
 import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryAuthorDoc;
@@ -12,23 +19,39 @@ import uz.ilmnajot.openlibraryspringapp.model.OpenLibrarySearchResponse;
 import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
 import uz.ilmnajot.openlibraryspringapp.service.AuthorService;
 
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Slf4j
 public class AuthorServiceImpl implements AuthorService {
 
-    private final RestTemplate restTemplate;
+    private final OpenLibraryClient openLibraryClient;
     private final AuthorRepository authorRepository;
-
-
-    @Value("${openlibrary.api.base-url}")
-    private String baseUrl;
-
-    public AuthorServiceImpl(RestTemplate restTemplate, AuthorRepository authorRepository) {
-        this.restTemplate = restTemplate;
+    private final AuthorSearchCache authorSearchCache;
+    private final SingleFlight<String, List<AuthorResponse>> authorSearchFlight;
+    private final AuthorPrefixIndex authorPrefixIndex;
+    private final FreshnessPolicy freshnessPolicy;
+    private final BackgroundRefresher backgroundRefresher;
+
+    @Value("${openlibrary.author-search.max-results:100}")
+    private int maxResults;
+
+    public AuthorServiceImpl(OpenLibraryClient openLibraryClient,
+                             AuthorRepository authorRepository,
+                             AuthorSearchCache authorSearchCache,
+                             SingleFlight<String, List<AuthorResponse>> authorSearchFlight,
+                             AuthorPrefixIndex authorPrefixIndex,
+                             FreshnessPolicy freshnessPolicy,
+                             BackgroundRefresher backgroundRefresher) {
+        this.openLibraryClient = openLibraryClient;
         this.authorRepository = authorRepository;
+        this.authorSearchCache = authorSearchCache;
+        this.authorSearchFlight = authorSearchFlight;
+        this.authorPrefixIndex = authorPrefixIndex;
+        this.freshnessPolicy = freshnessPolicy;
+        this.backgroundRefresher = backgroundRefresher;
     }
 
 
@@ -38,46 +61,119 @@ public class AuthorServiceImpl implements AuthorService {
      */
     @Override
     public List<AuthorResponse> searchAuthor(String name) {
-        List<Author> authorsFromBD = this.authorRepository
-                .findByAuthorNameContainingIgnoreCase(name);
+        String cacheKey = AuthorSearchCache.normalize(name);
+        Optional<List<AuthorResponse>> cached = this.authorSearchCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.debug("Author search cache hit for query: {}", cacheKey);
+            return cached.get();
+        }
+
+        // concurrent misses for the same query share one DB/API lookup and one persist
+        return this.authorSearchFlight.execute(cacheKey, () -> {
+            List<AuthorResponse> authors = this.searchFromDBOrAPI(name, cacheKey);
+            this.authorSearchCache.put(cacheKey, authors);
+            return authors;
+        });
+    }
+
+    /**
+     * Autocomplete from the in-memory prefix index, never touches the DB or OpenLibrary
+     */
+    @Override
+    public List<AuthorResponse> suggestAuthors(String prefix, int limit) {
+        return this.authorPrefixIndex.suggest(prefix, limit);
+    }
+
+    private List<AuthorResponse> searchFromDBOrAPI(String name, String cacheKey) {
+        List<AuthorResponse> authorsFromBD = this.authorRepository
+                .searchResponsesByName(name, this.maxResults);
 
         //if there is exists in DB
         if (!authorsFromBD.isEmpty()) {
             log.info("Found {} authors in local database", authorsFromBD.size());
-            return authorsFromBD
-                    .stream()
-                    .map(AuthorResponse::from)
-                    .toList();
-
-
+            return this.serveStored(name, cacheKey, authorsFromBD);
         }
         //if no in localBD, and search from outer API
         log.info("No authors found in local database, searching from OpenLibrary API");
 
-        return searchFromAPIAndSave(name);
+        return searchFromAPIAndSave(name, List.of());
     }
 
-    private List<AuthorResponse> searchFromAPIAndSave(String name) {
-        List<Author> authors = new ArrayList<>();
-        String url = String.format("%s/search/authors.json?q=%s",
-                baseUrl,
-                name.replace(" ", "%20"));
+    /**
+     * Judged by the least recently fetched author in the result: past the soft TTL the stored
+     * authors are returned while the query is re-run against OpenLibrary in the background,
+     * past the hard TTL the caller waits for it, falling back to them if OpenLibrary fails.
+     * The background refresh is a conditional request, the hard TTL one is not
+     */
+    private List<AuthorResponse> serveStored(String name, String cacheKey, List<AuthorResponse> stored) {
+        Instant fetchedAt = this.authorRepository.findOldestFetchedAt(stored
+                        .stream()
+                        .map(AuthorResponse::getAuthorId)
+                        .toList())
+                .orElse(null);
+        return switch (this.freshnessPolicy.classify(fetchedAt)) {
+            case FRESH -> stored;
+            case STALE -> {
+                log.debug("Authors for query {} are stale, refreshing in the background", cacheKey);
+                this.backgroundRefresher.schedule("authors:" + cacheKey, () -> {
+                    List<AuthorResponse> refreshed = this.searchFromAPIAndSave(name, stored);
+                    if (!refreshed.isEmpty()) {
+                        this.authorSearchCache.put(cacheKey, refreshed);
+                    }
+                });
+                yield stored;
+            }
+            case EXPIRED -> {
+                log.info("Authors for query {} are past the hard TTL, searching OpenLibrary API", cacheKey);
+                try {
+                    List<AuthorResponse> refreshed = this.searchFromAPIAndSave(name, List.of());
+                    yield refreshed.isEmpty() ? stored : refreshed;
+                } catch (RuntimeException e) {
+                    log.warn("Refreshing authors for query {} failed, serving stored authors: {}",
+                            cacheKey, e.getMessage());
+                    yield stored;
+                }
+            }
+        };
+    }
 
+    /**
+     * @param stored authors served for this query so far; when given, the search is revalidated and
+     *               a 304 only bumps their fetch time
+     */
+    private List<AuthorResponse> searchFromAPIAndSave(String name, List<AuthorResponse> stored) {
         try {
-            OpenLibrarySearchResponse response = restTemplate.getForObject(url, OpenLibrarySearchResponse.class);
+            UpstreamResponse<OpenLibrarySearchResponse> upstream = this.openLibraryClient
+                    .searchAuthors(name, !stored.isEmpty());
+            if (upstream.notModified()) {
+                this.authorRepository.markFetched(stored
+                        .stream()
+                        .map(AuthorResponse::getAuthorId)
+                        .toList(), this.freshnessPolicy.now());
+                this.openLibraryClient.storeValidators(upstream);
+                log.info("Author search for {} not modified in OpenLibrary, kept {} stored authors", name, stored.size());
+                return stored;
+            }
+            OpenLibrarySearchResponse response = upstream.body();
             if (response == null || response.getNumFound() == 0) {
                 log.warn("No authors found in OpenLibrary API for name: {}", name);
                 return List.of();
             }
-            List<Author> savedAuthors = response.getDocs()
+            List<Author> savedAuthors = this.authorRepository.upsertAll(response.getDocs()
                     .stream()
-                    .map(this::mapAndSaveAuthor)
-                    .toList();
+                    .map(this::mapAuthor)
+                    .toList());
+            this.openLibraryClient.storeValidators(upstream);
             log.info("Saved {} authors from API", savedAuthors.size());
-            return savedAuthors
+            List<AuthorResponse> responses = savedAuthors
                     .stream()
                     .map(AuthorResponse::from)
                     .toList();
+            this.authorPrefixIndex.addAll(responses);
+            return responses;
+        } catch (OutboundRejectedException e) {
+            // not a failure of OpenLibrary: callers serve what is stored, or answer 503 when nothing is
+            throw e;
         } catch (Exception e) {
             log.error("Error searching author: {} ", e.getMessage());
             throw new RuntimeException("Failed to search author", e);
@@ -85,11 +181,12 @@ public class AuthorServiceImpl implements AuthorService {
 
     }
 
-    private Author mapAndSaveAuthor(OpenLibraryAuthorDoc doc) {
+    private Author mapAuthor(OpenLibraryAuthorDoc doc) {
         Author author = new Author();
         author.setAuthorId(doc.getKey());
         author.setAuthorName(doc.getName());
-        return authorRepository.save(author);
+        author.setFetchedAt(this.freshnessPolicy.now());
+        return author;
     }
 
 
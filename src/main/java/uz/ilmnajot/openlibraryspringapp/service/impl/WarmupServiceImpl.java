@@ -0,0 +1,188 @@
+package uz.ilmnajot.openlibraryspringapp.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import uz.ilmnajot.openlibraryspringapp.config.WarmupProperties;
+import uz.ilmnajot.openlibraryspringapp.model.WarmupStatusResponse;
+import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
+import uz.ilmnajot.openlibraryspringapp.service.AuthorService;
+import uz.ilmnajot.openlibraryspringapp.service.WarmupService;
+import uz.ilmnajot.openlibraryspringapp.service.WorkService;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class WarmupServiceImpl implements WarmupService {
+
+    private final WarmupProperties properties;
+    private final AuthorService authorService;
+    private final WorkService workService;
+    private final AuthorRepository authorRepository;
+    private final Executor warmupExecutor;
+
+    private volatile Run run;
+
+    public WarmupServiceImpl(WarmupProperties properties,
+                             AuthorService authorService,
+                             WorkService workService,
+                             AuthorRepository authorRepository,
+                             @Qualifier("warmupExecutor") Executor warmupExecutor) {
+        this.properties = properties;
+        this.authorService = authorService;
+        this.workService = workService;
+        this.authorRepository = authorRepository;
+        this.warmupExecutor = warmupExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (this.properties.isEnabled()) {
+            this.start();
+        }
+    }
+
+    /**
+     * Preloads the configured search queries and the works of the configured and learned authors
+     * through the regular service paths, so the DB, the search cache and the prefix index are filled
+     * exactly as a user request would fill them. Returns at once; a running warm-up is not restarted.
+     */
+    @Override
+    public synchronized WarmupStatusResponse start() {
+        Run current = this.run;
+        if (current != null && !current.isFinished()) {
+            return current.status(this.properties.getReadyThreshold());
+        }
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (String query : this.properties.getQueries()) {
+            tasks.add(() -> this.authorService.searchAuthor(query));
+        }
+        Set<String> authorIds = new LinkedHashSet<>(this.properties.getAuthorIds());
+        RuntimeException learnedFailure = null;
+        try {
+            authorIds.addAll(this.learnedAuthorIds());
+        } catch (RuntimeException e) {
+            // counted as a failed task below, so the run still finishes and readiness is reached
+            learnedFailure = e;
+        }
+        for (String authorId : authorIds) {
+            tasks.add(() -> this.workService.getWorksByAuthor(authorId));
+        }
+
+        Run next = new Run(tasks.size() + (learnedFailure == null ? 0 : 1));
+        this.run = next;
+        log.info("Warm-up started with {} tasks", tasks.size());
+        if (learnedFailure != null) {
+            next.fail(learnedFailure);
+        }
+        for (Runnable task : tasks) {
+            try {
+                this.warmupExecutor.execute(() -> next.execute(task));
+            } catch (TaskRejectedException e) {
+                next.fail(e);
+            }
+        }
+        return next.status(this.properties.getReadyThreshold());
+    }
+
+    @Override
+    public WarmupStatusResponse status() {
+        Run current = this.run;
+        if (current == null) {
+            return new WarmupStatusResponse(false, this.isReady(), 0, 0, 0, null, null);
+        }
+        return current.status(this.properties.getReadyThreshold());
+    }
+
+    /**
+     * Not ready between startup and the first warm-up when warm-up is enabled
+     */
+    @Override
+    public boolean isReady() {
+        Run current = this.run;
+        if (current == null) {
+            return !this.properties.isEnabled();
+        }
+        return current.isReady(this.properties.getReadyThreshold());
+    }
+
+    private List<String> learnedAuthorIds() {
+        if (this.properties.getLearnedAuthors() <= 0) {
+            return List.of();
+        }
+        return this.authorRepository.findRecentlyRefreshedAuthorIds(
+                PageRequest.of(0, this.properties.getLearnedAuthors()));
+    }
+
+    /**
+     * Progress of one warm-up
+     */
+    private static final class Run {
+
+        private final int total;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile Instant finishedAt;
+
+        Run(int total) {
+            this.total = total;
+            if (total == 0) {
+                this.finishedAt = this.startedAt;
+            }
+        }
+
+        void execute(Runnable task) {
+            try {
+                task.run();
+                this.succeeded.incrementAndGet();
+                this.completed();
+            } catch (RuntimeException e) {
+                this.fail(e);
+            }
+        }
+
+        void fail(RuntimeException e) {
+            log.warn("Warm-up task failed: {}", e.getMessage());
+            this.failed.incrementAndGet();
+            this.completed();
+        }
+
+        private void completed() {
+            if (this.succeeded.get() + this.failed.get() == this.total) {
+                this.finishedAt = Instant.now();
+                log.info("Warm-up finished: {} of {} tasks succeeded in {} ms", this.succeeded.get(), this.total,
+                        this.finishedAt.toEpochMilli() - this.startedAt.toEpochMilli());
+            }
+        }
+
+        boolean isFinished() {
+            return this.finishedAt != null;
+        }
+
+        /**
+         * A finished run is ready even when every task failed: warm-up only pre-fills the caches,
+         * and the instance serves requests without it, just slower at first
+         */
+        boolean isReady(double threshold) {
+            return this.isFinished() || this.succeeded.get() >= Math.ceil(threshold * this.total);
+        }
+
+        WarmupStatusResponse status(double threshold) {
+            return new WarmupStatusResponse(!this.isFinished(), this.isReady(threshold), this.total,
+                    this.succeeded.get(), this.failed.get(), this.startedAt, this.finishedAt);
+        }
+    }
+}
@@ -1,57 +1,273 @@
 package uz.ilmnajot.openlibraryspringapp.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+import uz.ilmnajot.openlibraryspringapp.cache.AuthorPrefixIndex;
+import uz.ilmnajot.openlibraryspringapp.cache.BackgroundRefresher;
+import uz.ilmnajot.openlibraryspringapp.cache.FreshnessPolicy;
+import uz.ilmnajot.openlibraryspringapp.client.OpenLibraryClient;
+import uz.ilmnajot.openlibraryspringapp.client.UpstreamResponse;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
+import uz.ilmnajot.openlibraryspringapp.concurrent.SingleFlight;
 import uz.ilmnajot.openlibraryspringapp.entity.Author;
-import uz.ilmnajot.openlibraryspringapp.entity.Work;
-import uz.ilmnajot.openlibraryspringapp.mapper.WorkMapper;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorWorksResult;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorksPage;
+import uz.ilmnajot.openlibraryspringapp.model.StoredWorks;
 import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
 import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
 import uz.ilmnajot.openlibraryspringapp.repository.WorkRepository;
 import uz.ilmnajot.openlibraryspringapp.service.WorkService;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
-@RequiredArgsConstructor
 @Service
 @Slf4j
 public class WorkServiceImpl implements WorkService {
     private final WorkRepository workRepository;
     private final AuthorRepository authorRepository;
-    private final RestTemplate restTemplate;
-    private final WorkMapper workMapper;
-
-    @Value("${openlibrary.api.base-url}")
-    private String baseUrl;
+    private final OpenLibraryClient openLibraryClient;
+    private final SingleFlight<String, List<WorkResponse>> authorWorksFlight;
+    private final AuthorPrefixIndex authorPrefixIndex;
+    private final FreshnessPolicy freshnessPolicy;
+    private final BackgroundRefresher backgroundRefresher;
+    private final Executor worksBatchExecutor;
+
+    @Value("${openlibrary.works.flight-timeout:30s}")
+    private Duration flightTimeout;
+
+    @Value("${openlibrary.works.page-size:100}")
+    private int pageSize;
+
+    @Value("${openlibrary.works.max-pages:20}")
+    private int maxPages;
+
+    @Value("${openlibrary.works.batch.timeout:30s}")
+    private Duration batchTimeout;
+
+    public WorkServiceImpl(WorkRepository workRepository,
+                           AuthorRepository authorRepository,
+                           OpenLibraryClient openLibraryClient,
+                           SingleFlight<String, List<WorkResponse>> authorWorksFlight,
+                           AuthorPrefixIndex authorPrefixIndex,
+                           FreshnessPolicy freshnessPolicy,
+                           BackgroundRefresher backgroundRefresher,
+                           @Qualifier("worksBatchExecutor") Executor worksBatchExecutor) {
+        this.workRepository = workRepository;
+        this.authorRepository = authorRepository;
+        this.openLibraryClient = openLibraryClient;
+        this.authorWorksFlight = authorWorksFlight;
+        this.authorPrefixIndex = authorPrefixIndex;
+        this.freshnessPolicy = freshnessPolicy;
+        this.backgroundRefresher = backgroundRefresher;
+        this.worksBatchExecutor = worksBatchExecutor;
+    }
 
     @Override
-    @Transactional
     public List<WorkResponse> getWorksByAuthor(String authorId) {
         log.info("Getting works for author: {}", authorId);
         String normalizeAuthorId = this.normalizeAuthorId(authorId);
         log.info("Normalized author id: {}", normalizeAuthorId);
 
 
-        // Check if author exists in DB
-        List<Work> worksFromBD = this.workRepository.findAllByAuthors_AuthorId(normalizeAuthorId);
+        // Check if author exists in DB, projected straight into responses
+        List<WorkResponse> worksFromBD = this.workRepository.findResponsesByAuthorId(normalizeAuthorId);
         if (!worksFromBD.isEmpty()) {
             log.info("Found {} works in local database", worksFromBD.size());
-            return worksFromBD.stream()
-                    .map(this.workMapper::toDto)
-                    .toList();
+            return this.serveStored(authorId, normalizeAuthorId, worksFromBD);
         }
         //let's fetch if not found in localdb, from outer api
         log.info("No works found in local database, searching from OpenLibrary API");
 
-        // Fetch from OpenLibrary API
-        return fetchAndSaveWorksFromApi(authorId);
+        // Fetch from OpenLibrary API, one fetch-and-persist pipeline per author at a time
+        return this.refetchWorks(authorId, normalizeAuthorId, false);
+    }
+
+    /**
+     * Stored works past the soft TTL are returned as they are while a background refresh is queued;
+     * past the hard TTL the caller waits for the refetch, falling back to them if OpenLibrary fails
+     * or returns nothing. The background refresh is a conditional request; the hard TTL refetch is
+     * not, since a 304 only vouches for the first page and later pages may have changed
+     */
+    private List<WorkResponse> serveStored(String authorId, String normalizeAuthorId, List<WorkResponse> stored) {
+        Instant refreshedAt = this.authorRepository.findWorksRefreshedAt(normalizeAuthorId).orElse(null);
+        return switch (this.freshnessPolicy.classify(refreshedAt)) {
+            case FRESH -> stored;
+            case STALE -> {
+                this.scheduleRefresh(authorId, normalizeAuthorId);
+                yield stored;
+            }
+            case EXPIRED -> {
+                log.info("Works of {} are past the hard TTL, refetching from OpenLibrary API", normalizeAuthorId);
+                try {
+                    List<WorkResponse> refetched = this.refetchWorks(authorId, normalizeAuthorId, false);
+                    yield refetched.isEmpty() ? stored : refetched;
+                } catch (RuntimeException e) {
+                    log.warn("Refetching works of {} failed, serving stored works: {}",
+                            normalizeAuthorId, e.getMessage());
+                    yield stored;
+                }
+            }
+        };
+    }
+
+    /**
+     * Same freshness rules as {@link #serveStored}, applied to all authors from the one batch read.
+     * Every author waits at most batch-timeout in total, measured from the start of the call
+     */
+    @Override
+    public Map<String, AuthorWorksResult> getWorksByAuthors(List<String> authorIds) {
+        Map<String, String> normalized = new LinkedHashMap<>();
+        Map<String, AuthorWorksResult> invalid = new HashMap<>();
+        for (String authorId : authorIds) {
+            try {
+                normalized.putIfAbsent(authorId, this.normalizeAuthorId(authorId));
+            } catch (IllegalArgumentException e) {
+                invalid.put(authorId, AuthorWorksResult.failed(e.getMessage()));
+            }
+        }
+
+        Map<String, StoredWorks> stored = this.workRepository.findStoredWorksByAuthorIds(normalized.values()
+                .stream()
+                .distinct()
+                .toList());
+        long deadline = System.nanoTime() + this.batchTimeout.toNanos();
+        Map<String, CompletableFuture<List<WorkResponse>>> fetches = new HashMap<>();
+        normalized.forEach((authorId, normalizeAuthorId) -> {
+            StoredWorks hit = stored.get(normalizeAuthorId);
+            if (hit == null) {
+                fetches.computeIfAbsent(normalizeAuthorId,
+                        key -> this.fetchInBatch(authorId, key, List.of(), deadline));
+                return;
+            }
+            switch (this.freshnessPolicy.classify(hit.refreshedAt())) {
+                case FRESH -> {
+                }
+                case STALE -> this.scheduleRefresh(authorId, normalizeAuthorId);
+                case EXPIRED -> fetches.computeIfAbsent(normalizeAuthorId,
+                        key -> this.fetchInBatch(authorId, key, hit.works(), deadline));
+            }
+        });
+        log.info("Batch of {} authors: {} served from the database, {} fetching from OpenLibrary",
+                authorIds.size(), normalized.size() - fetches.size(), fetches.size());
+
+        Map<String, AuthorWorksResult> results = new LinkedHashMap<>();
+        for (String authorId : authorIds) {
+            if (results.containsKey(authorId)) {
+                continue;
+            }
+            String normalizeAuthorId = normalized.get(authorId);
+            if (normalizeAuthorId == null) {
+                results.put(authorId, invalid.get(authorId));
+            } else if (fetches.containsKey(normalizeAuthorId)) {
+                results.put(authorId, this.awaitInBatch(normalizeAuthorId, fetches.get(normalizeAuthorId), deadline));
+            } else {
+                results.put(authorId, AuthorWorksResult.of(stored.get(normalizeAuthorId).works()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Refetch on the batch executor; works past the hard TTL fall back to the stored ones
+     * like in {@link #serveStored}. A fetch that only gets a thread after the batch deadline
+     * is not started: nobody waits for its result any more.
+     */
+    private CompletableFuture<List<WorkResponse>> fetchInBatch(String authorId, String normalizeAuthorId,
+                                                               List<WorkResponse> stored, long deadline) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (System.nanoTime() - deadline >= 0) {
+                    if (stored.isEmpty()) {
+                        throw new CompletionException(new TimeoutException("Timed out fetching works from OpenLibrary"));
+                    }
+                    return stored;
+                }
+                try {
+                    List<WorkResponse> fetched = this.refetchWorks(authorId, normalizeAuthorId, false);
+                    return fetched.isEmpty() && !stored.isEmpty() ? stored : fetched;
+                } catch (RuntimeException e) {
+                    if (stored.isEmpty()) {
+                        throw e;
+                    }
+                    log.warn("Refetching works of {} failed, serving stored works: {}",
+                            normalizeAuthorId, e.getMessage());
+                    return stored;
+                }
+            }, this.worksBatchExecutor);
+        } catch (RejectedExecutionException e) {
+            return stored.isEmpty() ? CompletableFuture.failedFuture(e) : CompletableFuture.completedFuture(stored);
+        }
+    }
+
+    private AuthorWorksResult awaitInBatch(String normalizeAuthorId, CompletableFuture<List<WorkResponse>> fetch,
+                                           long deadline) {
+        try {
+            return AuthorWorksResult.of(fetch.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            // a fetch still in the queue is dropped; one already running is left to its HTTP deadline
+            fetch.cancel(false);
+            log.warn("Fetching works of {} did not finish within the batch timeout", normalizeAuthorId);
+            return AuthorWorksResult.failed("Timed out fetching works from OpenLibrary");
+        } catch (ExecutionException e) {
+            log.warn("Fetching works of {} failed: {}", normalizeAuthorId, e.getCause().getMessage());
+            return AuthorWorksResult.failed(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return AuthorWorksResult.failed("Interrupted while fetching works from OpenLibrary");
+        }
+    }
+
+    @Override
+    public Optional<WorksVersion> currentWorksVersion(String authorId) {
+        String normalizeAuthorId = this.normalizeAuthorId(authorId);
+        return this.workRepository.findWorksVersion(normalizeAuthorId)
+                .filter(version -> switch (this.freshnessPolicy.classify(version.refreshedAt())) {
+                    case FRESH -> true;
+                    case STALE -> {
+                        this.scheduleRefresh(authorId, normalizeAuthorId);
+                        yield true;
+                    }
+                    case EXPIRED -> false;
+                });
+    }
+
+    @Override
+    public long streamStoredWorks(String authorId, Consumer<WorkResponse> sink) {
+        return this.workRepository.streamResponsesByAuthorId(this.normalizeAuthorId(authorId), sink);
+    }
+
+    private void scheduleRefresh(String authorId, String normalizeAuthorId) {
+        log.debug("Works of {} are stale, refreshing in the background", normalizeAuthorId);
+        this.backgroundRefresher.schedule("works:" + normalizeAuthorId,
+                () -> this.refetchWorks(authorId, normalizeAuthorId, true));
+    }
+
+    private List<WorkResponse> refetchWorks(String authorId, String normalizeAuthorId, boolean revalidate) {
+        return this.authorWorksFlight.execute(normalizeAuthorId,
+                () -> fetchAndSaveWorksFromApi(authorId, revalidate),
+                this.flightTimeout);
     }
 
     private String normalizeAuthorId(String authorId) {
@@ -70,152 +286,142 @@ public class WorkServiceImpl implements WorkService {
     }
 
 
-    @Transactional
+    /**
+     * Runs without an enclosing transaction: each page's works are committed by upsertWorks,
+     * and no DB connection is held while waiting on OpenLibrary. The author is linked to them,
+     * and marked refreshed, only once every page arrived, so a walk cut short by a failed or
+     * rejected page leaves the author's stored works as they were
+     */
     public List<WorkResponse> fetchAndSaveWorksFromApi(String authorId) {
+        return this.fetchAndSaveWorksFromApi(authorId, false);
+    }
+
+    /**
+     * @param revalidate ask OpenLibrary whether the first page changed since it was last stored;
+     *                   on 304 only the refresh time is bumped and the stored works are returned.
+     *                   Validators are only kept for authors whose works fit on that one page, as
+     *                   a 304 for it says nothing about later pages
+     */
+    public List<WorkResponse> fetchAndSaveWorksFromApi(String authorId, boolean revalidate) {
         try {
             String normalizedAuthorId = normalizeAuthorId(authorId);
-            String apiPath = normalizedAuthorId + "/works.json";
-            String url = baseUrl.endsWith("/") ? baseUrl + apiPath.substring(1) : baseUrl + apiPath;
-            log.info("Fetching works from OpenLibrary API: {}", url);
+            String firstPage = normalizedAuthorId + "/works.json?limit=" + this.pageSize;
 
             try {
-                JsonNode response = restTemplate.getForObject(url, JsonNode.class);
-                if (response == null) {
+                UpstreamResponse<OpenLibraryWorksPage> response = this.openLibraryClient.fetchWorksPage(firstPage, revalidate);
+                if (response.notModified()) {
+                    return this.keepStoredWorks(normalizedAuthorId, response);
+                }
+                OpenLibraryWorksPage page = response.body();
+                if (page == null) {
                     log.warn("No response received from OpenLibrary API for author: {}", authorId);
                     return List.of();
                 }
 
                 // Get or create author
-                Author author = this.getOrCreateAuthor(authorId);
-
-                List<WorkResponse> results = new ArrayList<>();
-                JsonNode entries = response.get("entries");
+                Author author = this.getOrCreateAuthor(normalizedAuthorId);
 
-                // Check if entries is null or not an array
-                if (entries == null || !entries.isArray() || entries.isEmpty()) {
+                if (page.getEntries().isEmpty()) {
                     log.warn("No works found in OpenLibrary API for author: {}", authorId);
                     return List.of();
                 }
 
-                for (JsonNode entry : entries) {
-                    try {
-                        Work work = this.processWorkEntry(entry, author);
-                        if (work != null) {
-                            results.add(this.workMapper.toDto(work));
-                        }
-                    } catch (Exception e) {
-                        log.error("Error processing work entry", e);
+                boolean singlePage = page.getNext() == null;
+                Set<String> fetchedWorkIds = new HashSet<>();
+                boolean complete = true;
+                int fetchedPages = 1;
+                int inserted = 0;
+                while (page != null) {
+                    // download page N+1 while page N is being persisted
+                    CompletableFuture<OpenLibraryWorksPage> nextPage = null;
+                    if (page.getNext() != null && fetchedPages < this.maxPages) {
+                        nextPage = this.openLibraryClient.fetchWorksPageAsync(this.withPageSize(page.getNext()));
+                        fetchedPages++;
+                    } else if (page.getNext() != null) {
+                        log.warn("Stopped after {} pages of works for author: {}", this.maxPages, authorId);
+                        complete = false;
                     }
-                }
-                log.info("Fetched {} works from OpenLibrary API for author: {}", results.size(), authorId);
-                return results;
 
+                    inserted += this.workRepository.upsertWorks(page.getEntries());
+                    for (OpenLibraryWorkDoc doc : page.getEntries()) {
+                        fetchedWorkIds.add(doc.getKey());
+                    }
+                    page = nextPage == null ? null : this.await(nextPage);
+                }
+                this.workRepository.linkWorks(author, fetchedWorkIds);
+                if (complete) {
+                    // only the whole upstream list can tell which stored links it no longer has
+                    int unlinked = this.workRepository.unlinkWorksExcept(author, fetchedWorkIds);
+                    if (unlinked > 0) {
+                        log.info("Unlinked {} works no longer listed for author: {}", unlinked, authorId);
+                    }
+                }
+                this.authorRepository.markWorksRefreshed(author.getId(), this.freshnessPolicy.now());
+                if (singlePage) {
+                    this.openLibraryClient.storeValidators(response);
+                } else {
+                    this.openLibraryClient.forgetValidators(response);
+                }
+                log.info("Stored {} new works out of {} for author: {}", inserted, fetchedWorkIds.size(), authorId);
+                log.info("Fetched {} works in {} pages from OpenLibrary API for author: {}",
+                        fetchedWorkIds.size(), fetchedPages, authorId);
+                // the same read a DB hit is served from, so co-authors and stored works come out identical
+                return this.workRepository.findResponsesByAuthorId(normalizedAuthorId);
+
+            } catch (OutboundRejectedException e) {
+                // not a failure of OpenLibrary: callers serve what is stored, or answer 503 when nothing is
+                throw e;
             } catch (Exception e) {
                 log.error("API connection failed: {}", e.getMessage());
                 throw new RuntimeException("API connection failed: " + e.getMessage());
             }
+        } catch (OutboundRejectedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching works from OpenLibrary: {}", e.getMessage());
             throw new RuntimeException(e.getMessage());
         }
     }
 
-    private Work processWorkEntry(JsonNode entry, Author author) {
-        if (!entry.has("key")) {
-            log.warn("No key found in work entry");
-            return null;
-        }
-        String workId = entry.get("key").asText();
-        //we need to check if already exists in DB
-        Optional<Work> existingWork = this.workRepository.findByWorkId(workId);
-        if (existingWork.isPresent()) {
-            Work work = existingWork.get();
-            if (!work.getAuthors().contains(author)) {
-                work.getAuthors().add(author);
-                return this.workRepository.save(work);
-            }
-            return work;
-        }
-        Work work = new Work();
-        work.setWorkId(workId);
-        work.setTitle(extractTitle(entry));
-        work.setDescription(extractDescription(entry));
-        work.setSubjects(extractSubjects(entry));
-        work.setCovers(extractCovers(entry));
-        work.getAuthors().add(author);
-        Work savedWork = this.workRepository.save(work);
-        log.info("Saved work: {} - {}", savedWork.getWorkId(), savedWork.getTitle());
-        return savedWork;
-    }
-
-    private List<Long> extractCovers(JsonNode entry) {
-        if (!entry.has("covers")) {
-            return new ArrayList<>();
-        }
-
-        List<Long> covers = new ArrayList<>();
-        JsonNode coversNode = entry.get("covers");
-
-        if (coversNode.isArray()) {
-            for (JsonNode cover : coversNode) {
-                if (cover.isNumber()) {
-                    covers.add(cover.asLong());
-                }
-            }
-        }
-        return covers;
+    private List<WorkResponse> keepStoredWorks(String normalizedAuthorId, UpstreamResponse<OpenLibraryWorksPage> response) {
+        Author author = this.getOrCreateAuthor(normalizedAuthorId);
+        this.authorRepository.markWorksRefreshed(author.getId(), this.freshnessPolicy.now());
+        this.openLibraryClient.storeValidators(response);
+        List<WorkResponse> stored = this.workRepository.findResponsesByAuthorId(normalizedAuthorId);
+        log.info("Works of {} not modified in OpenLibrary, kept {} stored works", normalizedAuthorId, stored.size());
+        return stored;
     }
 
-    private List<String> extractSubjects(JsonNode entry) {
-        if (!entry.has("subjects")) {
-            return new ArrayList<>();
-        }
-
-        List<String> subjects = new ArrayList<>();
-        JsonNode subjectsNode = entry.get("subjects");
-
-        if (subjectsNode.isArray()) {
-            for (JsonNode subject : subjectsNode) {
-                if (subject.isTextual()) {
-                    subjects.add(subject.asText());
-                }
-            }
-        }
-        return subjects;
+    private String withPageSize(String nextPath) {
+        return UriComponentsBuilder.fromUriString(nextPath)
+                .replaceQueryParam("limit", this.pageSize)
+                .build()
+                .toUriString();
     }
 
-    private String extractDescription(JsonNode entry) {
-        if (!entry.has("description")) {
-            return null;
-        }
-
-        JsonNode desc = entry.get("description");
-        if (desc.isTextual()) {
-            return desc.asText();
-        } else if (desc.isObject() && desc.has("value")) {
-            return desc.get("value").asText();
+    private OpenLibraryWorksPage await(CompletableFuture<OpenLibraryWorksPage> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        return null;
-    }
-
-    private String extractTitle(JsonNode entry) {
-        return entry.has("title")
-                ? entry.get("title").asText()
-                : "Unknown Title";
     }
 
     private Author fetchAuthorDetails(String authorId) {
         try {
-            String url = baseUrl + authorId + ".json";
-            log.info("Fetching author details from OpenLibrary API: {}", url);
-            JsonNode response = restTemplate.getForObject(url, JsonNode.class);
-
-            String name = response != null && response.has("name")
-                    ? response.get("name").asText()
-                    : "Unknown Author";
+            String name = this.openLibraryClient.fetchAuthorName(authorId)
+                    .orElse("Unknown Author");
 
-            return new Author(authorId, name);
+            Author author = new Author(authorId, name);
+            author.setFetchedAt(this.freshnessPolicy.now());
+            return author;
 
+        } catch (OutboundRejectedException e) {
+            // saving a placeholder name here would outlive the rejection
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching author details", e);
             return new Author(authorId, "Unknown Author");
@@ -226,8 +432,9 @@ public class WorkServiceImpl implements WorkService {
         return authorRepository.findByAuthorId(authorId)
                 .orElseGet(() -> {
                     log.info("Author not found in local DB, fetching from OpenLibrary API: {}", authorId);
-                    Author newAuthor = this.fetchAuthorDetails(authorId);
-                    return authorRepository.save(newAuthor);
+                    Author newAuthor = authorRepository.save(this.fetchAuthorDetails(authorId));
+                    this.authorPrefixIndex.add(AuthorResponse.from(newAuthor));
+                    return newAuthor;
                 });
     }
 
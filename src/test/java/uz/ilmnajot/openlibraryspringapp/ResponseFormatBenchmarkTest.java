@@ -0,0 +1,96 @@
+package uz.ilmnajot.openlibraryspringapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Serialization time and bytes on the wire of a prolific author's works in JSON, CBOR and Smile,
+ * each plain and gzipped as Tomcat would send it
+ */
+@Tag("benchmark")
+@DisplayName("Response Format Benchmark")
+class ResponseFormatBenchmarkTest {
+
+    private static final int WORKS = 1_000;
+    private static final int WARMUP_ROUNDS = 30;
+    private static final int ROUNDS = 50;
+
+    @Test
+    @DisplayName("CBOR and Smile should be smaller than JSON for a large works list")
+    void shouldCompareFormats() throws IOException {
+        // Given
+        List<WorkResponse> works = works();
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", new ObjectMapper());
+        mappers.put("cbor", new CBORMapper());
+        mappers.put("smile", new SmileMapper());
+
+        // When
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        System.out.printf("%d works: format, serialize ms, bytes, gzipped bytes%n", WORKS);
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                mapper.writeValueAsBytes(works);
+            }
+            byte[] body = null;
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                body = mapper.writeValueAsBytes(works);
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+            sizes.put(entry.getKey(), body.length);
+            System.out.printf("%-5s %8.2f %10d %10d%n", entry.getKey(), millis, body.length, gzip(body).length);
+
+            // round trip keeps the content
+            assertEquals(works.size(), mapper.readTree(body).size());
+        }
+
+        // Then
+        assertTrue(sizes.get("cbor") < sizes.get("json"), "CBOR should be smaller than JSON");
+        assertTrue(sizes.get("smile") < sizes.get("json"), "Smile should be smaller than JSON");
+    }
+
+    /**
+     * Descriptions of a few hundred to 5,000 chars, repeated subjects, covers and two authors
+     */
+    private static List<WorkResponse> works() {
+        List<String> subjects = List.of("Fiction", "Fantasy", "Adventure", "Middle Earth", "Quests",
+                "Dragons", "Elves", "Wizards", "Good and evil", "Classics");
+        List<AuthorResponse> authors = List.of(new AuthorResponse("/authors/OL26320A", "J.R.R. Tolkien"),
+                new AuthorResponse("/authors/OL2A", "Christopher Tolkien"));
+        String sentence = "A long journey across a world of old kingdoms, told in many voices. ";
+        List<WorkResponse> works = new ArrayList<>();
+        for (int i = 0; i < WORKS; i++) {
+            String description = sentence.repeat(5 + i % 70);
+            description = description.substring(0, Math.min(5_000, description.length()));
+            works.add(new WorkResponse("/works/OL" + i + "W", "Work number " + i, description,
+                    subjects.subList(0, 3 + i % 8), List.of(1_000_000L + i, 2_000_000L + i), authors));
+        }
+        return works;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,148 @@
+package uz.ilmnajot.openlibraryspringapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cold-cache load on /api/works/by-author with platform vs virtual request threads
+ * OpenLibrary is replaced by a local stub that answers after a fixed delay
+ */
+@Tag("benchmark")
+@DisplayName("Threading Mode Load Benchmark")
+class ThreadingLoadBenchmarkTest {
+
+    private static final int REQUESTS = 200;
+    private static final int TOMCAT_THREADS = 20;
+    private static final long UPSTREAM_DELAY_MS = 250;
+
+    private HttpServer upstream;
+
+    private ExecutorService upstreamThreads;
+
+    @BeforeEach
+    void startUpstream() throws IOException {
+        upstreamThreads = Executors.newVirtualThreadPerTaskExecutor();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        upstream.setExecutor(upstreamThreads);
+        upstream.createContext("/authors/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            respond(exchange, path.endsWith("/works.json") ? "{\"entries\": []}" : "{\"name\": \"Stub Author\"}");
+        });
+        upstream.start();
+    }
+
+    @AfterEach
+    void stopUpstream() {
+        upstream.stop(0);
+        upstreamThreads.close();
+    }
+
+    @Test
+    @DisplayName("Virtual threads should serve blocking cold-cache load faster than a bounded platform pool")
+    void shouldServeColdLoadFasterOnVirtualThreads() throws Exception {
+        long platformMillis = runLoad(false, "platform");
+        long virtualMillis = runLoad(true, "virtual");
+
+        System.out.printf("%d cold requests, %d ms upstream latency x2 calls each: "
+                        + "platform (%d Tomcat threads) %d ms, virtual %d ms%n",
+                REQUESTS, UPSTREAM_DELAY_MS, TOMCAT_THREADS, platformMillis, virtualMillis);
+        assertTrue(virtualMillis < platformMillis,
+                "virtual " + virtualMillis + " ms, platform " + platformMillis + " ms");
+    }
+
+    private long runLoad(boolean virtualThreads, String database) throws Exception {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(OpenlibrarySpringAppApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database=h2",
+                        "--spring.jpa.show-sql=false",
+                        // getWorksByAuthor keeps its connection across the upstream calls
+                        "--spring.datasource.hikari.maximum-pool-size=" + REQUESTS,
+                        "--openlibrary.http.max-connections-per-route=" + REQUESTS,
+                        "--openlibrary.http.max-connections-total=" + REQUESTS,
+                        "--openlibrary.http.connection-request-timeout=30s",
+                        // the outbound gate would otherwise throttle the load to a few calls per second
+                        "--openlibrary.outbound.rate-per-second=" + REQUESTS * 10,
+                        "--openlibrary.outbound.burst=" + REQUESTS * 4,
+                        "--openlibrary.outbound.max-concurrent-calls=" + REQUESTS * 2,
+                        "--openlibrary.outbound.max-waiting-calls=" + REQUESTS * 2,
+                        "--openlibrary.outbound.max-wait=30s",
+                        "--openlibrary.api.base-url=http://127.0.0.1:" + upstream.getAddress().getPort(),
+                        "--logging.level.root=WARN");
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build();
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            // warm-up round on other authors: JIT, connection pools, Hibernate metadata
+            fire(client, callers, port, "OLW");
+
+            long start = System.nanoTime();
+            fire(client, callers, port, "OL");
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    private static void fire(HttpClient client, ExecutorService callers, int port, String prefix)
+            throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            String authorId = prefix + i + "A";
+            responses.add(callers.submit(() -> send(client, port, authorId)));
+        }
+        for (Future<Integer> response : responses) {
+            assertEquals(200, response.get());
+        }
+    }
+
+    private static int send(HttpClient client, int port, String authorId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + port + "/api/works/by-author?authorId=" + authorId)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        try {
+            Thread.sleep(UPSTREAM_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package uz.ilmnajot.openlibraryspringapp.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for AuthorPrefixIndex
+ */
+@DisplayName("Author Prefix Index Unit Tests")
+class AuthorPrefixIndexTest {
+
+    private final List<Runnable> compactions = new ArrayList<>();
+
+    private AuthorPrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AuthorPrefixIndex(mock(AuthorRepository.class), new BackgroundRefresher(compactions::add));
+        index.rebuild(Stream.of(
+                new AuthorResponse("/authors/OL1A", "J.R.R. Tolkien"),
+                new AuthorResponse("/authors/OL2A", "Christopher Tolkien"),
+                new AuthorResponse("/authors/OL3A", "Terry Pratchett")));
+    }
+
+    @Test
+    @DisplayName("Should match the start of the name and of any later word, case-insensitively")
+    void shouldMatchNameAndWordPrefixes() {
+        assertThat(index.suggest("TOLK", 10))
+                .extracting(AuthorResponse::getAuthorId)
+                .containsExactly("/authors/OL1A", "/authors/OL2A");
+        assertThat(index.suggest("  terry  p", 10))
+                .extracting(AuthorResponse::getAuthorName)
+                .containsExactly("Terry Pratchett");
+        assertTrue(index.suggest("olkien", 10).isEmpty());
+        assertTrue(index.suggest("   ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should honour the limit and return each author once")
+    void shouldLimitAndDeduplicate() {
+        index.add(new AuthorResponse("/authors/OL4A", "Tolkien Tolkien"));
+
+        List<AuthorResponse> all = index.suggest("tolkien", 10);
+        List<AuthorResponse> one = index.suggest("tolkien", 1);
+
+        assertThat(all).extracting(AuthorResponse::getAuthorId)
+                .containsExactly("/authors/OL1A", "/authors/OL2A", "/authors/OL4A");
+        assertEquals(1, one.size());
+    }
+
+    @Test
+    @DisplayName("Should merge newly added authors with the sorted base in order")
+    void shouldMergeAddedAuthors() {
+        index.addAll(List.of(
+                new AuthorResponse("/authors/OL5A", "Tolkien Estate"),
+                new AuthorResponse("/authors/OL6A", "Adam Tolkien")));
+
+        assertThat(index.suggest("tolkien", 10))
+                .extracting(AuthorResponse::getAuthorId)
+                .containsExactly("/authors/OL1A", "/authors/OL2A", "/authors/OL6A", "/authors/OL5A");
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    @DisplayName("Should stop suggesting the old name after an author is renamed")
+    void shouldForgetOldNameOnRename() {
+        index.add(new AuthorResponse("/authors/OL3A", "Terence Pratchett"));
+
+        assertTrue(index.suggest("terry", 10).isEmpty());
+        assertThat(index.suggest("terence", 10)).extracting(AuthorResponse::getAuthorId)
+                .containsExactly("/authors/OL3A");
+        assertEquals(1, index.suggest("pratchett", 10).size());
+    }
+
+    @Test
+    @DisplayName("Should hand compaction to the background executor once and keep all authors searchable")
+    void shouldCompact() {
+        for (int i = 0; i <= AuthorPrefixIndex.COMPACT_THRESHOLD + 5; i++) {
+            index.add(new AuthorResponse("/authors/N" + i + "A", "Name " + i));
+        }
+
+        // Then - queued, not run on the adding thread, and only once while pending
+        assertEquals(1, compactions.size());
+        assertThat(index.suggest("name 1000", 10))
+                .extracting(AuthorResponse::getAuthorName)
+                .startsWith("Name 1000", "Name 10000");
+
+        compactions.remove(0).run();
+
+        assertThat(index.suggest("name 1000", 10))
+                .extracting(AuthorResponse::getAuthorName)
+                .startsWith("Name 1000", "Name 10000");
+        assertEquals(2, index.suggest("tolkien", 10).size());
+    }
+
+    @Test
+    @DisplayName("Should merge renames and keys present on both sides without duplicates")
+    void shouldMergeRenamesOnCompaction() {
+        // Given - renamed away and back, so the old key is in both the array and the skip list
+        index.add(new AuthorResponse("/authors/OL1A", "Ronald Tolkien"));
+        index.add(new AuthorResponse("/authors/OL1A", "J.R.R. Tolkien"));
+        index.add(new AuthorResponse("/authors/OL3A", "Terence Pratchett"));
+
+        // When
+        index.compact();
+
+        // Then
+        assertThat(index.suggest("tolkien", 10)).extracting(AuthorResponse::getAuthorId)
+                .containsExactly("/authors/OL1A", "/authors/OL2A");
+        assertThat(index.suggest("j", 10)).extracting(AuthorResponse::getAuthorName)
+                .containsExactly("J.R.R. Tolkien");
+        assertTrue(index.suggest("ronald", 10).isEmpty());
+        assertTrue(index.suggest("terry", 10).isEmpty());
+        assertEquals(1, index.suggest("terence", 10).size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should answer suggestions in well under a millisecond over a million authors")
+    void shouldSuggestInUnderAMillisecond() {
+        index.rebuild(IntStream.range(0, 1_000_000)
+                .mapToObj(i -> new AuthorResponse("/authors/OL" + i + "A",
+                        "Author" + Integer.toString(i, 36) + " Surname" + (i % 5000))));
+        String[] prefixes = {"author1", "surname42", "authorz", "a", "surname4999", "nomatch"};
+        for (int i = 0; i < 100_000; i++) {
+            index.suggest(prefixes[i % prefixes.length], 10);
+        }
+
+        int runs = 200_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            index.suggest(prefixes[i % prefixes.length], 10);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / runs;
+
+        System.out.printf("suggest over 1M authors: %.2f us per call%n", micros);
+        assertTrue(micros < 1_000, micros + " us per call");
+    }
+}
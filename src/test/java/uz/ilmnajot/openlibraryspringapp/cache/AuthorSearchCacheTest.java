@@ -0,0 +1,93 @@
+package uz.ilmnajot.openlibraryspringapp.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uz.ilmnajot.openlibraryspringapp.config.AuthorSearchCacheProperties;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AuthorSearchCache
+ * Uses a manual ticker to drive expiry
+ */
+@DisplayName("Author Search Cache Unit Tests")
+class AuthorSearchCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private AuthorSearchCache cache;
+
+    @BeforeEach
+    void setUp() {
+        AuthorSearchCacheProperties properties = new AuthorSearchCacheProperties();
+        properties.setTtl(Duration.ofMinutes(10));
+        properties.setNegativeTtl(Duration.ofMinutes(1));
+        cache = new AuthorSearchCache(properties, nanos::get);
+    }
+
+    @Test
+    @DisplayName("Should normalize case and whitespace")
+    void shouldNormalizeQuery() {
+        assertEquals("j.r.r. tolkien", AuthorSearchCache.normalize("  J.R.R.   Tolkien "));
+        assertEquals("", AuthorSearchCache.normalize(null));
+    }
+
+    @Test
+    @DisplayName("Should expire negative entries before positive ones")
+    void shouldExpireNegativeEntriesFirst() {
+        // Given
+        cache.put("tolkien", List.of(new AuthorResponse("/authors/OL26320A", "J.R.R. Tolkien")));
+        cache.put("nobody", List.of());
+
+        // When
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+
+        // Then
+        assertTrue(cache.get("tolkien").isPresent(), "Positive entry should still be cached");
+        assertTrue(cache.get("nobody").isEmpty(), "Negative entry should have expired");
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        assertTrue(cache.get("tolkien").isEmpty(), "Positive entry should have expired");
+    }
+
+    @Test
+    @DisplayName("Should record hits and misses")
+    void shouldRecordStats() {
+        // Given
+        cache.put("king", List.of(new AuthorResponse("/authors/OL2162284A", "Stephen King")));
+
+        // When
+        cache.get("king");
+        cache.get("king");
+        cache.get("queen");
+
+        // Then
+        assertEquals(2, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("Should invalidate single key and all keys")
+    void shouldInvalidate() {
+        // Given
+        cache.put("a", List.of());
+        cache.put("b", List.of());
+
+        // When
+        cache.invalidate("a");
+
+        // Then
+        assertTrue(cache.get("a").isEmpty());
+        assertTrue(cache.get("b").isPresent());
+
+        cache.invalidateAll();
+        assertTrue(cache.get("b").isEmpty());
+    }
+}
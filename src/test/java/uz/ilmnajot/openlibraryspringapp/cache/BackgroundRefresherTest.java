@@ -0,0 +1,66 @@
+package uz.ilmnajot.openlibraryspringapp.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BackgroundRefresher
+ * Uses an executor that queues tasks until they are run by hand
+ */
+@DisplayName("Background Refresher Unit Tests")
+class BackgroundRefresherTest {
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @Test
+    @DisplayName("Should queue one refresh per key until it has run")
+    void shouldDeduplicatePendingRefreshes() {
+        // Given
+        BackgroundRefresher refresher = new BackgroundRefresher(queued::add);
+        AtomicInteger runs = new AtomicInteger();
+
+        // When
+        boolean first = refresher.schedule("works:/authors/OL1A", runs::incrementAndGet);
+        boolean duplicate = refresher.schedule("works:/authors/OL1A", runs::incrementAndGet);
+        boolean other = refresher.schedule("works:/authors/OL2A", runs::incrementAndGet);
+
+        // Then
+        assertTrue(first);
+        assertFalse(duplicate);
+        assertTrue(other);
+        assertEquals(2, refresher.pendingCount());
+
+        queued.forEach(Runnable::run);
+        assertEquals(2, runs.get());
+        assertEquals(0, refresher.pendingCount());
+        assertTrue(refresher.schedule("works:/authors/OL1A", runs::incrementAndGet));
+    }
+
+    @Test
+    @DisplayName("Should release the key when the refresh fails or is rejected")
+    void shouldReleaseKeyOnFailureOrRejection() {
+        // Given
+        BackgroundRefresher refresher = new BackgroundRefresher(queued::add);
+        refresher.schedule("authors:tolkien", () -> {
+            throw new IllegalStateException("upstream down");
+        });
+
+        // When
+        queued.forEach(Runnable::run);
+        BackgroundRefresher saturated = new BackgroundRefresher(task -> {
+            throw new TaskRejectedException("queue full");
+        });
+
+        // Then
+        assertEquals(0, refresher.pendingCount());
+        assertFalse(saturated.schedule("authors:tolkien", () -> { }));
+        assertEquals(0, saturated.pendingCount());
+    }
+}
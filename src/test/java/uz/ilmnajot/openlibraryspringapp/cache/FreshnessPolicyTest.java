@@ -0,0 +1,59 @@
+package uz.ilmnajot.openlibraryspringapp.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uz.ilmnajot.openlibraryspringapp.cache.FreshnessPolicy.Freshness;
+import uz.ilmnajot.openlibraryspringapp.config.FreshnessProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FreshnessPolicy
+ * Uses a fixed clock
+ */
+@DisplayName("Freshness Policy Unit Tests")
+class FreshnessPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private FreshnessPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        FreshnessProperties properties = new FreshnessProperties();
+        properties.setSoftTtl(Duration.ofHours(1));
+        properties.setHardTtl(Duration.ofDays(1));
+        policy = new FreshnessPolicy(properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should classify by age against soft and hard TTL")
+    void shouldClassifyByAge() {
+        assertEquals(Freshness.FRESH, policy.classify(NOW.minus(Duration.ofMinutes(59))));
+        assertEquals(Freshness.STALE, policy.classify(NOW.minus(Duration.ofHours(1))));
+        assertEquals(Freshness.STALE, policy.classify(NOW.minus(Duration.ofHours(23))));
+        assertEquals(Freshness.EXPIRED, policy.classify(NOW.minus(Duration.ofDays(1))));
+    }
+
+    @Test
+    @DisplayName("Should treat unknown fetch time as stale")
+    void shouldTreatUnknownAsStale() {
+        assertEquals(Freshness.STALE, policy.classify(null));
+    }
+
+    @Test
+    @DisplayName("Should reject a hard TTL shorter than the soft TTL")
+    void shouldRejectInvertedTtls() {
+        FreshnessProperties properties = new FreshnessProperties();
+        properties.setSoftTtl(Duration.ofDays(2));
+        properties.setHardTtl(Duration.ofDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> new FreshnessPolicy(properties));
+    }
+}
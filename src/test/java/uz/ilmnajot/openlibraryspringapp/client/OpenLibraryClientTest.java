@@ -0,0 +1,245 @@
+package uz.ilmnajot.openlibraryspringapp.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundGate;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
+import uz.ilmnajot.openlibraryspringapp.entity.UpstreamValidator;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibrarySearchResponse;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorksPage;
+import uz.ilmnajot.openlibraryspringapp.repository.UpstreamValidatorRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Unit tests for OpenLibraryClient
+ * Uses MockRestServiceServer instead of the real OpenLibrary API
+ */
+@DisplayName("OpenLibrary Client Unit Tests")
+class OpenLibraryClientTest {
+
+    private MockRestServiceServer server;
+
+    private OpenLibraryClient client;
+
+    private UpstreamValidatorRepository upstreamValidatorRepository;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        upstreamValidatorRepository = mock(UpstreamValidatorRepository.class);
+        client = new OpenLibraryClient(restTemplate, Runnable::run, new UpstreamValidators(upstreamValidatorRepository),
+                new OutboundGate("test", 1000, 1000, 8, 8, Duration.ofSeconds(1)));
+        ReflectionTestUtils.setField(client, "baseUrl", "https://openlibrary.org");
+    }
+
+    @Test
+    @DisplayName("Should map works page entries and next link")
+    void shouldParseWorksPage() {
+        // Given
+        server.expect(requestTo("https://openlibrary.org/authors/OL1A/works.json?limit=2"))
+                .andRespond(withSuccess("""
+                        {
+                            "links": {"next": "/authors/OL1A/works.json?offset=2"},
+                            "entries": [
+                                {
+                                    "key": "/works/OL1W",
+                                    "title": "Work One",
+                                    "description": {"type": "/type/text", "value": "Typed description"},
+                                    "subjects": ["Fiction", 42, "Fantasy"],
+                                    "covers": [11, -1, "x"]
+                                },
+                                {
+                                    "title": "Missing key"
+                                },
+                                {
+                                    "key": "/works/OL2W",
+                                    "description": "Plain description"
+                                }
+                            ]
+                        }
+                        """, MediaType.APPLICATION_JSON));
+
+        // When
+        OpenLibraryWorksPage page = client.fetchWorksPage("/authors/OL1A/works.json?limit=2");
+
+        // Then
+        server.verify();
+        assertEquals("/authors/OL1A/works.json?offset=2", page.getNext());
+        assertEquals(2, page.getEntries().size(), "Entry without key should be skipped");
+
+        OpenLibraryWorkDoc first = page.getEntries().get(0);
+        assertEquals("/works/OL1W", first.getKey());
+        assertEquals("Work One", first.getTitle());
+        assertEquals("Typed description", first.getDescription());
+        assertEquals(List.of("Fiction", "Fantasy"), first.getSubjects());
+        assertEquals(List.of(11L, -1L), first.getCovers());
+
+        OpenLibraryWorkDoc second = page.getEntries().get(1);
+        assertEquals("Unknown Title", second.getTitle());
+        assertEquals("Plain description", second.getDescription());
+        assertTrue(second.getSubjects().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return null next link on the last page")
+    void shouldReturnNullNextOnLastPage() {
+        // Given
+        server.expect(requestTo("https://openlibrary.org/authors/OL1A/works.json?offset=2"))
+                .andRespond(withSuccess("""
+                        {"links": {"self": "/authors/OL1A/works.json?offset=2"}, "entries": []}
+                        """, MediaType.APPLICATION_JSON));
+
+        // When
+        OpenLibraryWorksPage page = client.fetchWorksPageAsync("/authors/OL1A/works.json?offset=2").join();
+
+        // Then
+        assertNull(page.getNext());
+        assertTrue(page.getEntries().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should fetch author name")
+    void shouldFetchAuthorName() {
+        // Given
+        server.expect(requestTo("https://openlibrary.org/authors/OL1A.json"))
+                .andRespond(withSuccess("{\"name\": \"Test Author\"}", MediaType.APPLICATION_JSON));
+
+        // When
+        Optional<String> name = client.fetchAuthorName("/authors/OL1A");
+
+        // Then
+        assertEquals(Optional.of("Test Author"), name);
+    }
+
+    @Test
+    @DisplayName("Should send stored validators when revalidating and report 304 as not modified")
+    void shouldRevalidateWithStoredValidators() {
+        // Given
+        String url = "https://openlibrary.org/authors/OL1A/works.json?limit=2";
+        when(upstreamValidatorRepository.findById(url)).thenReturn(Optional.of(
+                new UpstreamValidator(url, "\"v1\"", "Wed, 01 May 2024 10:00:00 GMT", Instant.now())));
+        server.expect(requestTo(url))
+                .andExpect(header("If-None-Match", "\"v1\""))
+                .andExpect(header("If-Modified-Since", "Wed, 01 May 2024 10:00:00 GMT"))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        // When
+        UpstreamResponse<OpenLibraryWorksPage> response = client.fetchWorksPage("/authors/OL1A/works.json?limit=2", true);
+
+        // Then
+        server.verify();
+        assertTrue(response.notModified());
+        assertNull(response.body());
+    }
+
+    @Test
+    @DisplayName("Should fetch unconditionally and remember validators only when asked to")
+    void shouldRememberValidatorsOfFullResponse() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v2\"");
+        server.expect(requestTo("https://openlibrary.org/search/authors.json?q=Tolkien"))
+                .andExpect(headerDoesNotExist("If-None-Match"))
+                .andRespond(withSuccess("{\"numFound\": 1, \"docs\": [{\"key\": \"/authors/OL1A\", \"name\": \"Test Author\"}]}",
+                        MediaType.APPLICATION_JSON).headers(headers));
+
+        // When
+        UpstreamResponse<OpenLibrarySearchResponse> response = client.searchAuthors("Tolkien", false);
+
+        // Then
+        server.verify();
+        assertFalse(response.notModified());
+        assertEquals(1, response.body().getNumFound());
+        assertEquals("\"v2\"", response.etag());
+        verify(upstreamValidatorRepository, never()).findById(any());
+        verify(upstreamValidatorRepository, never()).save(any());
+
+        // When
+        client.storeValidators(response);
+
+        // Then
+        verify(upstreamValidatorRepository).save(argThat(validator ->
+                validator.getUrl().equals(response.url()) && validator.getEtag().equals("\"v2\"")));
+    }
+
+    @Test
+    @DisplayName("Should forget validators once OpenLibrary stops sending them")
+    void shouldForgetValidatorsWhenNoneSent() {
+        // Given
+        String url = "https://openlibrary.org/authors/OL1A/works.json?limit=2";
+        server.expect(requestTo(url))
+                .andRespond(withSuccess("{\"entries\": []}", MediaType.APPLICATION_JSON));
+
+        // When
+        client.storeValidators(client.fetchWorksPage("/authors/OL1A/works.json?limit=2", true));
+
+        // Then
+        verify(upstreamValidatorRepository).deleteById(url);
+        verify(upstreamValidatorRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should forget validators on request even when the response carries some")
+    void shouldForgetValidatorsOnRequest() {
+        // Given
+        String url = "https://openlibrary.org/authors/OL1A/works.json?limit=2";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v3\"");
+        server.expect(requestTo(url))
+                .andRespond(withSuccess("{\"entries\": [], \"links\": {\"next\": \"/authors/OL1A/works.json?offset=2\"}}",
+                        MediaType.APPLICATION_JSON).headers(headers));
+
+        // When
+        client.forgetValidators(client.fetchWorksPage("/authors/OL1A/works.json?limit=2", false));
+
+        // Then
+        verify(upstreamValidatorRepository).deleteById(url);
+        verify(upstreamValidatorRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should not call OpenLibrary when the outbound gate rejects the call")
+    void shouldNotCallWhenGateRejects() {
+        // Given - one token, not refilled within max-wait
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer gatedServer = MockRestServiceServer.bindTo(restTemplate).build();
+        OpenLibraryClient gated = new OpenLibraryClient(restTemplate, Runnable::run,
+                new UpstreamValidators(upstreamValidatorRepository),
+                new OutboundGate("test", 1.0 / 60, 1, 8, 8, Duration.ZERO));
+        ReflectionTestUtils.setField(gated, "baseUrl", "https://openlibrary.org");
+        gatedServer.expect(requestTo("https://openlibrary.org/authors/OL1A/works.json?limit=2"))
+                .andRespond(withSuccess("{\"entries\": []}", MediaType.APPLICATION_JSON));
+
+        // When
+        gated.fetchWorksPage("/authors/OL1A/works.json?limit=2", false);
+        OutboundRejectedException rejected = assertThrows(OutboundRejectedException.class,
+                () -> gated.fetchWorksPage("/authors/OL2A/works.json?limit=2", false));
+
+        // Then
+        assertEquals(OutboundGate.Rejection.RATE_LIMIT, rejected.getReason());
+        gatedServer.verify();
+    }
+}
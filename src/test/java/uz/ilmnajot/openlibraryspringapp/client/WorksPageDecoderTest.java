@@ -0,0 +1,186 @@
+package uz.ilmnajot.openlibraryspringapp.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorksPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WorksPageDecoder
+ * The tree-based reference below is the JsonNode walk the client used before streaming
+ */
+@DisplayName("Works Page Decoder Unit Tests")
+class WorksPageDecoderTest {
+
+    private final WorksPageDecoder decoder = new WorksPageDecoder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should skip unknown fields, nested objects and entries without key")
+    void shouldSkipUnstoredFields() throws IOException {
+        // Given
+        String body = """
+                {
+                    "links": {"self": "/authors/OL1A/works.json", "author": "/authors/OL1A",
+                              "next": "/authors/OL1A/works.json?offset=50"},
+                    "size": 120,
+                    "entries": [
+                        {
+                            "type": {"key": "/type/work"},
+                            "authors": [{"author": {"key": "/authors/OL1A"}, "type": {"key": "/type/author_role"}}],
+                            "key": "/works/OL1W",
+                            "title": "Work One",
+                            "created": {"type": "/type/datetime", "value": "2009-10-15T11:33:14"},
+                            "description": {"type": "/type/text", "value": "Typed description"},
+                            "subjects": ["Fiction", {"odd": true}, "Fantasy"],
+                            "covers": [11, 12.0, null]
+                        },
+                        {"title": "No key", "subjects": ["Ignored"]},
+                        {"key": "/works/OL2W", "description": "Plain", "title": null}
+                    ]
+                }
+                """;
+
+        // When
+        OpenLibraryWorksPage page = decoder.decode(stream(body));
+
+        // Then
+        assertEquals("/authors/OL1A/works.json?offset=50", page.getNext());
+        assertEquals(2, page.getEntries().size());
+
+        OpenLibraryWorkDoc first = page.getEntries().get(0);
+        assertEquals(new OpenLibraryWorkDoc("/works/OL1W", "Work One", "Typed description",
+                List.of("Fiction", "Fantasy"), List.of(11L, 12L)), first);
+
+        OpenLibraryWorkDoc second = page.getEntries().get(1);
+        assertEquals("Plain", second.getDescription());
+        assertTrue(second.getCovers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return null for an empty body")
+    void shouldReturnNullForEmptyBody() throws IOException {
+        assertNull(decoder.decode(stream("")));
+    }
+
+    @Test
+    @DisplayName("Should decode the same docs as the JsonNode tree walk")
+    void shouldMatchTreeDecoding() throws IOException {
+        // Given
+        String body = samplePage(200);
+
+        // When
+        OpenLibraryWorksPage streamed = decoder.decode(stream(body));
+        OpenLibraryWorksPage tree = decodeWithTree(body.getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertEquals(tree, streamed);
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Streaming decode should allocate less than the JsonNode tree walk")
+    void shouldAllocateLessThanTreeDecoding() throws IOException {
+        // Given - one large page, in the same shape as works.json
+        byte[] body = samplePage(1_000).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 20; i++) {
+            decoder.decode(new ByteArrayInputStream(body));
+            decodeWithTree(body);
+        }
+
+        // When
+        long treeBytes = allocatedBytes(() -> decodeWithTree(body));
+        long streamBytes = allocatedBytes(() -> decoder.decode(new ByteArrayInputStream(body)));
+
+        // Then
+        System.out.printf("works.json page of %d KiB: tree %d KiB, streaming %d KiB allocated%n",
+                body.length / 1024, treeBytes / 1024, streamBytes / 1024);
+        assertTrue(streamBytes < treeBytes,
+                "Streaming decode allocated " + streamBytes + " bytes, tree " + treeBytes);
+    }
+
+    private interface Decode {
+        Object run() throws IOException;
+    }
+
+    private static long allocatedBytes(Decode decode) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(decode.run());
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / 10;
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String samplePage(int entries) {
+        StringBuilder json = new StringBuilder("""
+                {"links": {"self": "/authors/OL1A/works.json", "next": "/authors/OL1A/works.json?offset=%d"},
+                 "size": %d, "entries": [""".formatted(entries, entries * 3));
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("""
+                    {"type": {"key": "/type/work"}, "key": "/works/OL%dW", "title": "Work number %d",
+                     "authors": [{"type": {"key": "/type/author_role"}, "author": {"key": "/authors/OL1A"}}],
+                     "description": {"type": "/type/text", "value": "A fairly long description of work %d, \
+                    as OpenLibrary often carries several paragraphs of blurb for popular titles."},
+                     "subjects": ["Fiction", "Fantasy", "Adventure", "Subject %d", "Juvenile fiction"],
+                     "subject_places": ["Middle-earth"], "subject_times": ["Third Age"],
+                     "covers": [%d, %d, -1], "latest_revision": 12, "revision": 12,
+                     "created": {"type": "/type/datetime", "value": "2009-10-15T11:33:14.000"},
+                     "last_modified": {"type": "/type/datetime", "value": "2023-01-02T03:04:05.000"}}"""
+                    .formatted(i, i, i, i, 1000 + i, 2000 + i));
+        }
+        return json.append("]}").toString();
+    }
+
+    private OpenLibraryWorksPage decodeWithTree(byte[] body) throws IOException {
+        JsonNode response = objectMapper.readTree(body);
+        List<OpenLibraryWorkDoc> docs = new ArrayList<>();
+        for (JsonNode entry : response.path("entries")) {
+            if (!entry.has("key")) {
+                continue;
+            }
+            List<String> subjects = new ArrayList<>();
+            for (JsonNode subject : entry.path("subjects")) {
+                if (subject.isTextual()) {
+                    subjects.add(subject.asText());
+                }
+            }
+            List<Long> covers = new ArrayList<>();
+            for (JsonNode cover : entry.path("covers")) {
+                if (cover.isNumber()) {
+                    covers.add(cover.asLong());
+                }
+            }
+            JsonNode desc = entry.path("description");
+            String description = desc.isTextual() ? desc.asText()
+                    : desc.isObject() && desc.has("value") ? desc.get("value").asText() : null;
+            docs.add(new OpenLibraryWorkDoc(entry.get("key").asText(),
+                    entry.has("title") ? entry.get("title").asText() : "Unknown Title",
+                    description, subjects, covers));
+        }
+        JsonNode next = response.path("links").path("next");
+        return new OpenLibraryWorksPage(docs, next.isTextual() ? next.asText() : null);
+    }
+}
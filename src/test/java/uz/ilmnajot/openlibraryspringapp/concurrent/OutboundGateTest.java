@@ -0,0 +1,148 @@
+package uz.ilmnajot.openlibraryspringapp.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OutboundGate
+ */
+@DisplayName("Outbound Gate Unit Tests")
+class OutboundGateTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should let a burst through and reject calls that would wait past max-wait for a token")
+    void shouldRejectBeyondRate() {
+        // Given - two tokens, refilled once a minute
+        OutboundGate gate = new OutboundGate("test", 1.0 / 60, 2, 4, 4, Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        gate.call(calls::incrementAndGet);
+        gate.call(calls::incrementAndGet);
+        OutboundRejectedException rejected = assertThrows(OutboundRejectedException.class,
+                () -> gate.call(calls::incrementAndGet));
+
+        // Then
+        assertEquals(2, calls.get());
+        assertEquals(OutboundGate.Rejection.RATE_LIMIT, rejected.getReason());
+        assertTrue(rejected.getRetryAfter().toSeconds() >= 59);
+        assertEquals(0, gate.activeCount());
+    }
+
+    @Test
+    @DisplayName("Should space calls out when a token can be waited for")
+    void shouldWaitForToken() {
+        // Given - one token, refilled every 100 ms
+        OutboundGate gate = new OutboundGate("test", 10, 1, 4, 4, Duration.ofSeconds(2));
+        gate.call(() -> null);
+
+        // When
+        long started = System.nanoTime();
+        gate.call(() -> null);
+        long waited = System.nanoTime() - started;
+
+        // Then
+        assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(50), "waited " + waited + " ns");
+        assertEquals(2, gate.permittedCount());
+    }
+
+    @Test
+    @DisplayName("Should queue callers for a busy slot up to max-waiting and reject the rest")
+    void shouldBoundConcurrencyAndQueue() throws Exception {
+        // Given - one slot, one waiter allowed
+        OutboundGate gate = new OutboundGate("test", 1000, 1000, 1, 1, Duration.ofSeconds(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> gate.call(() -> {
+            started.countDown();
+            await(release);
+            return null;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<?> waiter = executor.submit(() -> gate.call(() -> null));
+        while (gate.waitingCount() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        OutboundRejectedException queueFull = assertThrows(OutboundRejectedException.class,
+                () -> gate.call(() -> null));
+
+        // Then
+        assertEquals(OutboundGate.Rejection.QUEUE_FULL, queueFull.getReason());
+        assertEquals(1, gate.activeCount());
+        Exception timedOut = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OutboundRejectedException.class, timedOut.getCause());
+        assertEquals(OutboundGate.Rejection.BULKHEAD, ((OutboundRejectedException) timedOut.getCause()).getReason());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(0, gate.activeCount());
+        assertEquals(0, gate.waitingCount());
+    }
+
+    @Test
+    @DisplayName("Should release the slot when the call fails")
+    void shouldReleaseSlotOnFailure() {
+        // Given
+        OutboundGate gate = new OutboundGate("test", 1000, 1000, 1, 0, Duration.ZERO);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> gate.call(() -> {
+            throw new IllegalStateException("upstream failed");
+        }));
+
+        // Then
+        assertEquals(0, gate.activeCount());
+        assertEquals("ok", gate.call(() -> "ok"));
+    }
+
+    @Test
+    @DisplayName("Should expose saturation, tokens and rejections as metrics")
+    void shouldExposeMetrics() {
+        // Given
+        OutboundGate gate = new OutboundGate("test", 1.0 / 60, 1, 2, 0, Duration.ZERO);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        gate.bindTo(registry);
+
+        // When
+        gate.call(() -> null);
+        assertThrows(OutboundRejectedException.class, () -> gate.call(() -> null));
+
+        // Then
+        assertEquals(1.0, registry.get("openlibrary.outbound.permitted").tag("name", "test")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("openlibrary.outbound.rejected").tag("reason", "rate_limit")
+                .functionCounter().count());
+        assertEquals(0.0, registry.get("openlibrary.outbound.rejected").tag("reason", "queue_full")
+                .functionCounter().count());
+        assertEquals(0.0, registry.get("openlibrary.outbound.saturation").gauge().value());
+        assertTrue(registry.get("openlibrary.outbound.tokens").gauge().value() < 1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
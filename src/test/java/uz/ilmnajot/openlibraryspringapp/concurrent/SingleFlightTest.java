@@ -0,0 +1,118 @@
+package uz.ilmnajot.openlibraryspringapp.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlight
+ */
+@DisplayName("Single Flight Unit Tests")
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should run loader once for concurrent callers of the same key")
+    void shouldCoalesceConcurrentCalls() throws Exception {
+        // Given
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.execute("tolkien", () -> {
+            loads.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            return "result";
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(executor.submit(() -> flight.execute("tolkien", () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        while (flight.coalescedCount() < 5) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Then
+        assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get(), "Loader should run exactly once");
+        assertEquals(1, flight.executionCount());
+        assertEquals(5, flight.coalescedCount());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    @DisplayName("Should share leader exception and allow retry afterwards")
+    void shouldPropagateExceptionAndForgetKey() {
+        // Given
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+
+        // When & Then
+        assertThrows(IllegalStateException.class,
+                () -> flight.execute("key", () -> {
+                    throw new IllegalStateException("boom");
+                }));
+        assertEquals("ok", flight.execute("key", () -> "ok"));
+        assertEquals(2, flight.executionCount());
+    }
+
+    @Test
+    @DisplayName("Should time out follower while leader keeps running")
+    void shouldTimeOutFollower() throws Exception {
+        // Given
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flight.execute("slow", () -> {
+            leaderStarted.countDown();
+            await(release);
+            return "late";
+        }, Duration.ofMillis(50)));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // When & Then
+        assertThrows(SingleFlightTimeoutException.class,
+                () -> flight.execute("slow", () -> "other", Duration.ofMillis(50)));
+        assertEquals(1, flight.timeoutCount());
+
+        release.countDown();
+        assertEquals("late", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package uz.ilmnajot.openlibraryspringapp.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RestTemplateConfig
+ * Boots only the HTTP client beans, no web server or database
+ */
+@DisplayName("RestTemplate Config Unit Tests")
+class RestTemplateConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(PropertiesConfig.class, RestTemplateConfig.class);
+
+    @Test
+    @DisplayName("Should back RestTemplate with a bounded Apache connection pool by default")
+    void shouldUsePooledApacheClientByDefault() {
+        contextRunner
+                .withPropertyValues("openlibrary.http.max-connections-per-route=7",
+                        "openlibrary.http.max-connections-total=9")
+                .run(context -> {
+                    RestTemplate restTemplate = context.getBean(RestTemplate.class);
+                    assertInstanceOf(HttpComponentsClientHttpRequestFactory.class,
+                            restTemplate.getRequestFactory());
+
+                    PoolingHttpClientConnectionManager pool =
+                            context.getBean(PoolingHttpClientConnectionManager.class);
+                    assertEquals(7, pool.getDefaultMaxPerRoute());
+                    assertEquals(9, pool.getMaxTotal());
+
+                    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                    context.getBean(MeterBinder.class).bindTo(registry);
+                    assertEquals(9.0, registry.get("httpcomponents.httpclient.pool.total.max")
+                            .tag("httpclient", "openlibrary")
+                            .gauge().value());
+                });
+    }
+
+    @Test
+    @DisplayName("Should switch to the JDK HTTP/2 client without creating the Apache pool")
+    void shouldUseJdkClientWhenConfigured() {
+        contextRunner
+                .withPropertyValues("openlibrary.http.client=jdk")
+                .run(context -> {
+                    RestTemplate restTemplate = context.getBean(RestTemplate.class);
+                    assertInstanceOf(JdkClientHttpRequestFactory.class, restTemplate.getRequestFactory());
+                    assertTrue(context.getBeansOfType(PoolingHttpClientConnectionManager.class).isEmpty());
+                });
+    }
+
+    @Test
+    @DisplayName("Should cancel a response that keeps dripping past the exchange timeout")
+    void shouldCancelSlowDripAfterExchangeTimeout() throws Exception {
+        HttpServer server = slowDripServer();
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/drip";
+            for (String client : List.of("apache", "jdk")) {
+                contextRunner
+                        .withPropertyValues("openlibrary.http.client=" + client,
+                                "openlibrary.http.read-timeout=5s",
+                                "openlibrary.http.exchange-timeout=500ms")
+                        .run(context -> {
+                            RestTemplate restTemplate = context.getBean(RestTemplate.class);
+
+                            // When - a byte every 100 ms never trips the read timeout
+                            long started = System.nanoTime();
+                            assertThrows(RestClientException.class,
+                                    () -> restTemplate.getForObject(url, String.class));
+
+                            // Then
+                            long elapsed = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                            assertTrue(elapsed < 3000, client + " took " + elapsed + " ms");
+                        });
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should withdraw the exchange deadline once a response is closed")
+    void shouldWithdrawDeadlineOfFinishedExchange() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ok", exchange -> {
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write("ok".getBytes());
+            }
+        });
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/ok";
+            contextRunner
+                    .withPropertyValues("openlibrary.http.exchange-timeout=1h")
+                    .run(context -> {
+                        RestTemplate restTemplate = context.getBean(RestTemplate.class);
+                        ExchangeDeadlineRequestFactory factory =
+                                (ExchangeDeadlineRequestFactory) restTemplate.getRequestFactory();
+
+                        // When
+                        for (int i = 0; i < 3; i++) {
+                            assertEquals("ok", restTemplate.getForObject(url, String.class));
+                        }
+
+                        // Then - nothing left waiting out the hour
+                        assertEquals(0, factory.pendingDeadlines());
+                    });
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Announces a 1000-byte body and sends it one byte every 100 ms
+     */
+    private static HttpServer slowDripServer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/drip", exchange -> {
+            exchange.sendResponseHeaders(200, 1000);
+            try (OutputStream body = exchange.getResponseBody()) {
+                for (int i = 0; i < 1000; i++) {
+                    body.write('a');
+                    body.flush();
+                    Thread.sleep(100);
+                }
+            } catch (IOException e) {
+                // the client gave up
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(UpstreamHttpProperties.class)
+    static class PropertiesConfig {
+    }
+}
@@ -7,9 +7,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundGate;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
 import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
 import uz.ilmnajot.openlibraryspringapp.service.AuthorService;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -203,6 +206,25 @@ class AuthorControllerTest {
         verify(authorService, times(1)).searchAuthor(searchName);
     }
 
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when OpenLibrary may not be called")
+    void shouldReturn503WhenOutboundRejected() throws Exception {
+        // Given
+        String searchName = "Tolkien";
+        when(authorService.searchAuthor(searchName)).thenThrow(new OutboundRejectedException(
+                "Outbound call to openlibrary rejected: RATE_LIMIT", OutboundGate.Rejection.RATE_LIMIT,
+                Duration.ofSeconds(3)));
+
+        // When + Then
+        mockMvc.perform(get("/api/authors/search")
+                        .param("q", searchName))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(header().doesNotExist("ETag"));
+
+        verify(authorService, times(1)).searchAuthor(searchName);
+    }
+
     @Test
     @DisplayName("Should handle long search queries")
     void shouldHandleLongSearchQuery() throws Exception {
@@ -233,4 +255,78 @@ class AuthorControllerTest {
 
         verify(authorService, never()).searchAuthor(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should return suggestions for a prefix")
+    void shouldReturnSuggestionsForPrefix() throws Exception {
+        // Given
+        AuthorResponse author = new AuthorResponse("/authors/A1", "J.R.R. Tolkien");
+        when(authorService.suggestAuthors("tolk", 10))
+                .thenReturn(List.of(author));
+
+        // When + Then
+        mockMvc.perform(get("/api/authors/suggest")
+                        .param("prefix", "tolk"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].authorName").value("J.R.R. Tolkien"));
+
+        verify(authorService, times(1)).suggestAuthors("tolk", 10);
+        verify(authorService, never()).searchAuthor(any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when suggestion limit is out of range")
+    void shouldReturn400WhenSuggestLimitOutOfRange() throws Exception {
+        // When + Then
+        mockMvc.perform(get("/api/authors/suggest")
+                        .param("prefix", "tolk")
+                        .param("limit", "500"))
+                .andExpect(status().isBadRequest());
+
+        verify(authorService, never()).suggestAuthors(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should tag search results and answer a matching If-None-Match with 304")
+    void shouldAnswerConditionalSearchWith304() throws Exception {
+        // Given
+        when(authorService.searchAuthor("tolkien"))
+                .thenReturn(List.of(new AuthorResponse("/authors/A1", "J.R.R. Tolkien")));
+        String etag = mockMvc.perform(get("/api/authors/search").param("q", "tolkien"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // When + Then
+        mockMvc.perform(get("/api/authors/search")
+                        .param("q", "tolkien")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Should change the ETag when the search results change")
+    void shouldChangeETagWithResults() throws Exception {
+        // Given
+        when(authorService.searchAuthor("tolkien"))
+                .thenReturn(List.of(new AuthorResponse("/authors/A1", "J.R.R. Tolkien")))
+                .thenReturn(List.of(new AuthorResponse("/authors/A1", "John Ronald Reuel Tolkien")));
+        String etag = mockMvc.perform(get("/api/authors/search").param("q", "tolkien"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // When + Then
+        mockMvc.perform(get("/api/authors/search")
+                        .param("q", "tolkien")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].authorName").value("John Ronald Reuel Tolkien"));
+    }
+}
@@ -0,0 +1,346 @@
+package uz.ilmnajot.openlibraryspringapp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundGate;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
+import uz.ilmnajot.openlibraryspringapp.config.ResponseFormatConfig;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorWorksResult;
+import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
+import uz.ilmnajot.openlibraryspringapp.service.WorkService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for WorkController
+ * Tests REST API endpoints using MockMvc
+ */
+@WebMvcTest(controllers = WorkController.class)
+@Import(ResponseFormatConfig.class)
+@DisplayName("Work Controller Unit Tests")
+class WorkControllerTest {
+
+    private static final String AUTHOR_ID = "/authors/OL1A";
+    private static final Instant UPDATED_AT = Instant.parse("2024-04-01T08:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private WorkService workService;
+
+    @Test
+    @DisplayName("Should return stored works with ETag, Last-Modified and Cache-Control")
+    void shouldTagStoredWorks() throws Exception {
+        // Given
+        WorksVersion version = new WorksVersion(Instant.parse("2024-05-01T10:00:00Z"), 1, UPDATED_AT);
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.of(version));
+        when(workService.getWorksByAuthor(AUTHOR_ID)).thenReturn(List.of(work()));
+
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author").param("authorId", AUTHOR_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.of(version)))
+                .andExpect(header().string("Last-Modified", "Wed, 01 May 2024 10:00:00 GMT"))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Should render works as CBOR or Smile when the client asks for it")
+    void shouldNegotiateBinaryFormats() throws Exception {
+        // Given
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.empty());
+        when(workService.getWorksByAuthor(AUTHOR_ID)).thenReturn(List.of(work()));
+
+        // When
+        byte[] cbor = mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        byte[] smile = mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .accept(ResponseFormats.SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ResponseFormats.SMILE_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        // Then
+        JsonNode fromCbor = new CBORMapper().readTree(cbor);
+        JsonNode fromSmile = new SmileMapper().readTree(smile);
+        assertEquals("/works/OL1W", fromCbor.get(0).get("workId").asText());
+        assertEquals(fromCbor, fromSmile);
+    }
+
+    @Test
+    @DisplayName("Should keep JSON as the default and refuse formats it cannot produce")
+    void shouldDefaultToJson() throws Exception {
+        // Given
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.empty());
+        when(workService.getWorksByAuthor(AUTHOR_ID)).thenReturn(List.of(work()));
+
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    @DisplayName("Should stream stored works as NDJSON, one work per line")
+    void shouldStreamStoredWorksAsNdjson() throws Exception {
+        // Given
+        WorksVersion version = new WorksVersion(Instant.parse("2024-05-01T10:00:00Z"), 2, UPDATED_AT);
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.of(version));
+        when(workService.streamStoredWorks(eq(AUTHOR_ID), any())).thenAnswer(invocation -> {
+            Consumer<WorkResponse> sink = invocation.getArgument(1);
+            sink.accept(work("/works/OL1W"));
+            sink.accept(work("/works/OL2W"));
+            return 2L;
+        });
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.of(version)))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(body.endsWith("\n"));
+        assertTrue(lines[0].startsWith("{\"workId\":\"/works/OL1W\""));
+        assertTrue(lines[1].startsWith("{\"workId\":\"/works/OL2W\""));
+        verify(workService, never()).getWorksByAuthor(any());
+    }
+
+    @Test
+    @DisplayName("Should write fetched works as NDJSON when nothing was stored")
+    void shouldWriteFetchedWorksAsNdjson() throws Exception {
+        // Given
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.empty());
+        when(workService.getWorksByAuthor(AUTHOR_ID)).thenReturn(List.of(work()));
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("{\"workId\":\"/works/OL1W\"")));
+        verify(workService, never()).streamStoredWorks(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with 304 on the NDJSON variant too")
+    void shouldAnswerMatchingETagWith304ForNdjson() throws Exception {
+        // Given
+        WorksVersion version = new WorksVersion(Instant.parse("2024-05-01T10:00:00Z"), 1, UPDATED_AT);
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.of(version));
+
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .header("If-None-Match", ETags.of(version)))
+                .andExpect(status().isNotModified());
+
+        verify(workService, never()).streamStoredWorks(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with 304 without reading the works")
+    void shouldAnswerMatchingETagWith304() throws Exception {
+        // Given
+        WorksVersion version = new WorksVersion(Instant.parse("2024-05-01T10:00:00Z"), 1, UPDATED_AT);
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.of(version));
+
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .header("If-None-Match", ETags.of(version)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", ETags.of(version)))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(content().string(""));
+
+        verify(workService, never()).getWorksByAuthor(any());
+    }
+
+    @Test
+    @DisplayName("Should answer an unchanged If-Modified-Since with 304")
+    void shouldAnswerIfModifiedSinceWith304() throws Exception {
+        // Given
+        WorksVersion version = new WorksVersion(Instant.parse("2024-05-01T10:00:00Z"), 1, UPDATED_AT);
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.of(version));
+
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .header("If-Modified-Since", "Wed, 01 May 2024 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(workService, never()).getWorksByAuthor(any());
+    }
+
+    @Test
+    @DisplayName("Should send the works again after they were refreshed")
+    void shouldSendWorksWhenETagIsOutdated() throws Exception {
+        // Given
+        WorksVersion before = new WorksVersion(Instant.parse("2024-05-01T10:00:00Z"), 1, UPDATED_AT);
+        WorksVersion after = new WorksVersion(Instant.parse("2024-05-02T10:00:00Z"), 2, UPDATED_AT);
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.of(after));
+        when(workService.getWorksByAuthor(AUTHOR_ID)).thenReturn(List.of(work(), work()));
+
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author")
+                        .param("authorId", AUTHOR_ID)
+                        .header("If-None-Match", ETags.of(before)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.of(after)))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("Should send works fetched from OpenLibrary without validators, reading the version once")
+    void shouldNotTagFetchedWorks() throws Exception {
+        // Given - nothing stored before the call
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.empty());
+        when(workService.getWorksByAuthor(AUTHOR_ID)).thenReturn(List.of(work()));
+
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author").param("authorId", AUTHOR_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(header().doesNotExist("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(workService, times(1)).currentWorksVersion(AUTHOR_ID);
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when nothing is stored and OpenLibrary may not be called")
+    void shouldReturn503WhenOutboundRejected() throws Exception {
+        // Given
+        when(workService.currentWorksVersion(AUTHOR_ID)).thenReturn(Optional.empty());
+        when(workService.getWorksByAuthor(AUTHOR_ID)).thenThrow(new OutboundRejectedException(
+                "Outbound call to openlibrary rejected: QUEUE_FULL", OutboundGate.Rejection.QUEUE_FULL,
+                Duration.ofSeconds(2)));
+
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author").param("authorId", AUTHOR_ID))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(header().doesNotExist("Cache-Control"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when author ID is blank")
+    void shouldReturn400WhenAuthorIdBlank() throws Exception {
+        // When + Then
+        mockMvc.perform(get("/api/works/by-author").param("authorId", " "))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(workService);
+    }
+
+    @Test
+    @DisplayName("Should return works of many authors keyed by author, with per-author errors")
+    void shouldReturnWorksOfManyAuthors() throws Exception {
+        // Given
+        Map<String, AuthorWorksResult> results = new LinkedHashMap<>();
+        results.put("OL1A", AuthorWorksResult.of(List.of(work())));
+        results.put("OL2A", AuthorWorksResult.failed("API connection failed"));
+        when(workService.getWorksByAuthors(List.of("OL1A", "OL2A"))).thenReturn(results);
+
+        // When + Then
+        mockMvc.perform(post("/api/works/by-authors")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"authorIds\": [\"OL1A\", \"OL2A\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.OL1A.works", hasSize(1)))
+                .andExpect(jsonPath("$.OL1A.error").doesNotExist())
+                .andExpect(jsonPath("$.OL2A.error").value("API connection failed"))
+                .andExpect(jsonPath("$.OL2A.works").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an empty, oversized or null-containing batch")
+    void shouldRejectInvalidBatch() throws Exception {
+        // Given
+        String oversized = "{\"authorIds\": [" + "\"OL1A\",".repeat(50) + "\"OL1A\"]}";
+
+        // When + Then
+        for (String body : List.of("{\"authorIds\": []}", "{}", "{\"authorIds\": [\"OL1A\", null]}", oversized)) {
+            mockMvc.perform(post("/api/works/by-authors")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+        verifyNoInteractions(workService);
+    }
+
+    private static WorkResponse work() {
+        return work("/works/OL1W");
+    }
+
+    private static WorkResponse work(String workId) {
+        return new WorkResponse(workId, "Title", null, List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,193 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uz.ilmnajot.openlibraryspringapp.config.DumpImportProperties;
+import uz.ilmnajot.openlibraryspringapp.entity.Work;
+import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
+import uz.ilmnajot.openlibraryspringapp.repository.WorkRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for DumpImporter
+ * Uses in-memory H2 database, so chunks go through the JDBC batch path
+ */
+@DataJpaTest(showSql = false)
+@Import(DumpLoader.class)
+@DisplayName("Dump Importer Integration Tests")
+class DumpImporterTest {
+
+    @Autowired
+    private DumpLoader dumpLoader;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private WorkRepository workRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path dir;
+
+    private DumpImportProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DumpImportProperties();
+        properties.setParserThreads(3);
+        properties.setChunkSize(2);
+    }
+
+    @Test
+    @DisplayName("Should import gzipped author and work dumps with links, then resume past them")
+    void shouldImportAndResume() throws Exception {
+        // Given
+        Path authors = gzip("ol_dump_authors.txt.gz", List.of(
+                "/type/author\t/authors/OL1A\t1\t2020-01-01\t{\"name\": \"Author One\"}",
+                "/type/redirect\t/authors/OL9A\t1\t2020-01-01\t{\"location\": \"/authors/OL1A\"}",
+                "/type/author\t/authors/OL2A\t1\t2020-01-01\t{\"name\": \"Author Two\"}",
+                "/type/author\t/authors/OL3A\t1\t2020-01-01\t{\"name\": "));
+        Path works = gzip("ol_dump_works.txt.gz", List.of(
+                "/type/work\t/works/OL1W\t1\t2020-01-01\t{\"title\": \"Shared\", \"subjects\": [\"Fiction\"],"
+                        + " \"covers\": [7], \"authors\": [{\"author\": {\"key\": \"/authors/OL1A\"}},"
+                        + " {\"author\": {\"key\": \"/authors/OL2A\"}}]}",
+                "/type/work\t/works/OL2W\t1\t2020-01-01\t{\"title\": \"Solo\","
+                        + " \"authors\": [{\"author\": {\"key\": \"/authors/OL2A\"}},"
+                        + " {\"author\": {\"key\": \"/authors/OLMISSINGA\"}}]}",
+                "/type/work\t/works/OL3W\t1\t2020-01-01\t{\"title\": \"No authors\"}"));
+        DumpImporter importer = new DumpImporter(dumpLoader, properties);
+
+        // When
+        ImportResult authorResult = importer.importFile(DumpKind.AUTHORS, authors);
+        ImportResult workResult = importer.importFile(DumpKind.WORKS, works);
+
+        // Then
+        assertEquals(4, authorResult.lines());
+        assertEquals(2, authorResult.records());
+        assertEquals(1, authorResult.malformed());
+        assertEquals(3, workResult.records());
+        assertEquals(3, workResult.links());
+
+        assertEquals(2, authorRepository.count());
+        Work shared = workRepository.findByWorkId("/works/OL1W").orElseThrow();
+        assertThat(shared.getSubjects()).containsExactly("Fiction");
+        assertThat(shared.getCovers()).containsExactly(7L);
+        assertThat(workRepository.findResponsesByAuthorId("/authors/OL2A"))
+                .extracting("workId")
+                .containsExactlyInAnyOrder("/works/OL1W", "/works/OL2W");
+        assertEquals(3L, jdbcTemplate.queryForObject(
+                "SELECT lines_done FROM dump_import_checkpoint WHERE kind = 'WORKS' AND file_name = ?",
+                Long.class, "ol_dump_works.txt.gz"));
+
+        // When - run again over the same files
+        ImportResult resumed = importer.importFile(DumpKind.WORKS, works);
+
+        // Then
+        assertEquals(3, resumed.resumedAt());
+        assertEquals(0, resumed.lines());
+        assertEquals(3, workRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should overwrite works from a newer dump without duplicating links")
+    void shouldReimportWithoutResume() throws Exception {
+        // Given
+        properties.setResume(false);
+        Path authors = plain("authors.txt", List.of(
+                "/type/author\t/authors/OL1A\t1\t2020-01-01\t{\"name\": \"Author One\"}"));
+        Path works = plain("works.txt", List.of(
+                "/type/work\t/works/OL1W\t1\t2020-01-01\t{\"title\": \"Old\","
+                        + " \"authors\": [{\"author\": {\"key\": \"/authors/OL1A\"}}]}"));
+        DumpImporter importer = new DumpImporter(dumpLoader, properties);
+        importer.importFile(DumpKind.AUTHORS, authors);
+        importer.importFile(DumpKind.WORKS, works);
+        jdbcTemplate.update("UPDATE work SET updated_at = TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00+00'");
+        Files.writeString(works, "/type/work\t/works/OL1W\t2\t2021-01-01\t{\"title\": \"New\","
+                + " \"authors\": [{\"author\": {\"key\": \"/authors/OL1A\"}}]}\n");
+
+        // When
+        ImportResult result = importer.importFile(DumpKind.WORKS, works);
+
+        // Then
+        assertEquals(0, result.links());
+        assertEquals("New", workRepository.findByWorkId("/works/OL1W").orElseThrow().getTitle());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM work_authors", Integer.class));
+        assertTrue(workRepository.findWorksVersion("/authors/OL1A").orElseThrow().updatedAt()
+                .isAfter(Instant.parse("2020-01-01T00:00:00Z")));
+    }
+
+    @Test
+    @DisplayName("Should import a newer dump under an already checkpointed name from its first line")
+    void shouldNotResumeNewFileWithSameName() throws Exception {
+        // Given - last month's dump fully loaded
+        Path works = plain("ol_dump_works_latest.txt", List.of(
+                "/type/work\t/works/OL1W\t1\t2020-01-01\t{\"title\": \"One\"}",
+                "/type/work\t/works/OL2W\t1\t2020-01-01\t{\"title\": \"Two\"}"));
+        Files.setLastModifiedTime(works, FileTime.from(Instant.parse("2024-01-31T00:00:00Z")));
+        DumpImporter importer = new DumpImporter(dumpLoader, properties);
+        importer.importFile(DumpKind.WORKS, works);
+
+        // When - this month's dump is downloaded to the same name
+        plain("ol_dump_works_latest.txt", List.of(
+                "/type/work\t/works/OL1W\t2\t2024-02-01\t{\"title\": \"One, revised\"}",
+                "/type/work\t/works/OL2W\t2\t2024-02-01\t{\"title\": \"Two, revised\"}",
+                "/type/work\t/works/OL3W\t1\t2024-02-01\t{\"title\": \"Three\"}"));
+        Files.setLastModifiedTime(works, FileTime.from(Instant.parse("2024-02-29T00:00:00Z")));
+        ImportResult result = importer.importFile(DumpKind.WORKS, works);
+
+        // Then
+        assertEquals(0, result.resumedAt());
+        assertEquals(3, result.lines());
+        assertEquals("One, revised", workRepository.findByWorkId("/works/OL1W").orElseThrow().getTitle());
+        assertEquals(3, workRepository.count());
+        assertEquals(3L, jdbcTemplate.queryForObject(
+                "SELECT records_loaded FROM dump_import_checkpoint WHERE kind = 'WORKS' AND file_name = ?",
+                Long.class, "ol_dump_works_latest.txt"));
+
+        // When - the same file again
+        ImportResult resumed = importer.importFile(DumpKind.WORKS, works);
+
+        // Then
+        assertEquals(3, resumed.resumedAt());
+        assertEquals(0, resumed.lines());
+    }
+
+    private Path gzip(String name, List<String> lines) throws IOException {
+        Path file = dir.resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file));
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    private Path plain(String name, List<String> lines) throws IOException {
+        return Files.write(dir.resolve(name), lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+package uz.ilmnajot.openlibraryspringapp.dump;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DumpLineParser
+ */
+@DisplayName("Dump Line Parser Unit Tests")
+class DumpLineParserTest {
+
+    private final DumpLineParser parser = new DumpLineParser();
+
+    @Test
+    @DisplayName("Should parse an author line")
+    void shouldParseAuthor() throws IOException {
+        String line = "/type/author\t/authors/OL26320A\t12\t2021-03-01T10:00:00\t"
+                + "{\"name\": \"J.R.R. Tolkien\", \"birth_date\": \"1892\", \"links\": [{\"url\": \"x\"}]}";
+
+        DumpRecord record = parser.parse(DumpKind.AUTHORS, line);
+
+        assertEquals(new DumpAuthor("/authors/OL26320A", "J.R.R. Tolkien"), record);
+    }
+
+    @Test
+    @DisplayName("Should parse a work line with description object, subjects, covers and authors")
+    void shouldParseWork() throws IOException {
+        String line = "/type/work\t/works/OL27448W\t30\t2022-01-01T00:00:00\t{"
+                + "\"title\": \"The Lord of the Rings\","
+                + "\"description\": {\"type\": \"/type/text\", \"value\": \"One ring\"},"
+                + "\"subjects\": [\"Fantasy\", {\"odd\": 1}, \"Quest\"],"
+                + "\"covers\": [14625765, -1],"
+                + "\"authors\": [{\"author\": {\"key\": \"/authors/OL26320A\"}, \"type\": {\"key\": \"/type/author_role\"}},"
+                + "{\"author\": \"/authors/OL2A\"}]}";
+
+        DumpRecord record = parser.parse(DumpKind.WORKS, line);
+
+        assertEquals(new DumpWork("/works/OL27448W", "The Lord of the Rings", "One ring",
+                List.of("Fantasy", "Quest"), List.of(14625765L, -1L),
+                List.of("/authors/OL26320A", "/authors/OL2A")), record);
+    }
+
+    @Test
+    @DisplayName("Should skip lines of other types and authors without a name")
+    void shouldSkipOtherTypes() throws IOException {
+        assertNull(parser.parse(DumpKind.WORKS, "/type/redirect\t/works/OL1W\t2\t2020-01-01\t{\"location\": \"/works/OL2W\"}"));
+        assertNull(parser.parse(DumpKind.AUTHORS, "/type/work\t/works/OL1W\t1\t2020-01-01\t{\"title\": \"x\"}"));
+        assertNull(parser.parse(DumpKind.AUTHORS, "/type/author\t/authors/OL1A\t1\t2020-01-01\t{}"));
+    }
+
+    @Test
+    @DisplayName("Should cut values to the column lengths and drop NUL characters")
+    void shouldFitValuesToColumns() throws IOException {
+        String line = "/type/work\t/works/OL1W\t1\t2020-01-01\t{\"title\": \"" + "T".repeat(300)
+                + "\", \"description\": \"a\\u0000b\"}";
+
+        DumpWork work = (DumpWork) parser.parse(DumpKind.WORKS, line);
+
+        assertEquals(DumpLineParser.TITLE_LENGTH, work.title().length());
+        assertEquals("ab", work.description());
+        assertTrue(work.subjects().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a line of the expected type with broken JSON")
+    void shouldRejectMalformedJson() {
+        assertThrows(IOException.class,
+                () -> parser.parse(DumpKind.WORKS, "/type/work\t/works/OL1W\t1\t2020-01-01\t{\"title\": "));
+        assertThrows(IOException.class,
+                () -> parser.parse(DumpKind.WORKS, "/type/work\t/works/OL1W"));
+    }
+}
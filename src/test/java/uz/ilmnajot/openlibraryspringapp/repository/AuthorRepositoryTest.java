@@ -6,10 +6,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
 import uz.ilmnajot.openlibraryspringapp.entity.Author;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +34,9 @@ class AuthorRepositoryTest {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         authorRepository.deleteAll();
@@ -102,13 +111,13 @@ class AuthorRepositoryTest {
         entityManager.flush();
 
         // When
-        List<Author> smithAuthors = authorRepository.findByAuthorNameContainingIgnoreCase("smith");
+        List<AuthorResponse> smithAuthors = authorRepository.searchResponsesByName("smith", 100);
 
         // Then
         assertEquals(2, smithAuthors.size());
         assertThat(smithAuthors)
-                .extracting(Author::getAuthorName)
-                .containsExactlyInAnyOrder("John Smith", "Jane Smith");
+                .extracting(AuthorResponse::getAuthorName)
+                .containsExactly("Jane Smith", "John Smith");
     }
 
     @Test
@@ -122,9 +131,9 @@ class AuthorRepositoryTest {
         entityManager.flush();
 
         // When
-        List<Author> found1 = authorRepository.findByAuthorNameContainingIgnoreCase("ELBEK");
-        List<Author> found2 = authorRepository.findByAuthorNameContainingIgnoreCase("elbek");
-        List<Author> found3 = authorRepository.findByAuthorNameContainingIgnoreCase("ElBeK");
+        List<AuthorResponse> found1 = authorRepository.searchResponsesByName("ELBEK", 100);
+        List<AuthorResponse> found2 = authorRepository.searchResponsesByName("elbek", 100);
+        List<AuthorResponse> found3 = authorRepository.searchResponsesByName("ElBeK", 100);
 
         // Then
         assertEquals(1, found1.size());
@@ -133,6 +142,95 @@ class AuthorRepositoryTest {
         assertEquals("Elbek Umarov", found1.get(0).getAuthorName());
     }
 
+    @Test
+    @DisplayName("Should search by name case-insensitively with a row limit")
+    void shouldSearchByNameWithLimit() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            Author author = new Author();
+            author.setAuthorId("/authors/OL" + i + "A");
+            author.setAuthorName("Smith Number " + i);
+            authorRepository.save(author);
+        }
+        Author other = new Author();
+        other.setAuthorId("/authors/OL9A");
+        other.setAuthorName("Robert Johnson");
+        authorRepository.save(other);
+        entityManager.flush();
+
+        // When
+        List<AuthorResponse> all = authorRepository.searchResponsesByName("SMITH", 100);
+        List<AuthorResponse> limited = authorRepository.searchResponsesByName("smith", 3);
+
+        // Then
+        assertEquals(5, all.size());
+        assertThat(all).extracting(AuthorResponse::getAuthorName).allMatch(name -> name.startsWith("Smith"));
+        assertEquals(3, limited.size());
+    }
+
+    @Test
+    @DisplayName("Should cut search results by name, then id, the same way on every call")
+    void shouldOrderSearchResultsByNameThenId() {
+        // Given - saved out of order, two of them sharing a name
+        String[][] authors = {{"/authors/OL3A", "Carol Smith"}, {"/authors/OL2A", "Adam Smith"},
+                {"/authors/OL4A", "Bob Smith"}, {"/authors/OL1A", "Adam Smith"}};
+        for (String[] row : authors) {
+            authorRepository.save(new Author(row[0], row[1]));
+        }
+        entityManager.flush();
+
+        // When
+        List<AuthorResponse> limited = authorRepository.searchResponsesByName("smith", 3);
+
+        // Then
+        assertThat(limited).containsExactly(
+                new AuthorResponse("/authors/OL1A", "Adam Smith"),
+                new AuthorResponse("/authors/OL2A", "Adam Smith"),
+                new AuthorResponse("/authors/OL4A", "Bob Smith"));
+    }
+
+    @Test
+    @DisplayName("Should project search results without loading entities")
+    void shouldSearchResponsesByName() {
+        // Given
+        Author author = new Author();
+        author.setAuthorId("/authors/OL1A");
+        author.setAuthorName("Elbek Umarov");
+        authorRepository.save(author);
+        entityManager.flush();
+
+        // When
+        List<AuthorResponse> found = authorRepository.searchResponsesByName("UMAR", 10);
+
+        // Then
+        assertThat(found).containsExactly(new AuthorResponse("/authors/OL1A", "Elbek Umarov"));
+        assertTrue(authorRepository.searchResponsesByName("50%", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should treat LIKE wildcards in the search term literally")
+    void shouldEscapeLikeWildcards() {
+        // Given
+        Author percent = new Author();
+        percent.setAuthorId("/authors/OL1A");
+        percent.setAuthorName("100% Author");
+        authorRepository.save(percent);
+
+        Author plain = new Author();
+        plain.setAuthorId("/authors/OL2A");
+        plain.setAuthorName("1000 Author");
+        authorRepository.save(plain);
+        entityManager.flush();
+
+        // When
+        List<AuthorResponse> found = authorRepository.searchResponsesByName("100%", 100);
+        List<AuthorResponse> underscore = authorRepository.searchResponsesByName("_", 100);
+
+        // Then
+        assertThat(found).extracting(AuthorResponse::getAuthorName).containsExactly("100% Author");
+        assertTrue(underscore.isEmpty());
+    }
+
     @Test
     @DisplayName("Should return empty list when no authors match search")
     void shouldReturnEmptyListWhenNoMatch() {
@@ -144,7 +242,7 @@ class AuthorRepositoryTest {
         entityManager.flush();
 
         // When
-        List<Author> found = authorRepository.findByAuthorNameContainingIgnoreCase("NonExistent");
+        List<AuthorResponse> found = authorRepository.searchResponsesByName("NonExistent", 100);
 
         // Then
         assertTrue(found.isEmpty());
@@ -161,8 +259,8 @@ class AuthorRepositoryTest {
         entityManager.flush();
 
         // When
-        List<Author> foundByFirst = authorRepository.findByAuthorNameContainingIgnoreCase("step");
-        List<Author> foundByLast = authorRepository.findByAuthorNameContainingIgnoreCase("king");
+        List<AuthorResponse> foundByFirst = authorRepository.searchResponsesByName("step", 100);
+        List<AuthorResponse> foundByLast = authorRepository.searchResponsesByName("king", 100);
 
         // Then
         assertEquals(1, foundByFirst.size());
@@ -184,7 +282,7 @@ class AuthorRepositoryTest {
         entityManager.flush();
 
         // When
-        List<Author> found = authorRepository.findByAuthorNameContainingIgnoreCase("o'brien");
+        List<AuthorResponse> found = authorRepository.searchResponsesByName("o'brien", 100);
 
         // Then
         assertEquals(1, found.size());
@@ -213,8 +311,8 @@ class AuthorRepositoryTest {
         entityManager.flush();
 
         // When
-        List<Author> foundByAlex = authorRepository.findByAuthorNameContainingIgnoreCase("alex");
-        List<Author> foundByAnderson = authorRepository.findByAuthorNameContainingIgnoreCase("anderson");
+        List<AuthorResponse> foundByAlex = authorRepository.searchResponsesByName("alex", 100);
+        List<AuthorResponse> foundByAnderson = authorRepository.searchResponsesByName("anderson", 100);
 
         // Then
         assertEquals(3, foundByAlex.size());
@@ -255,8 +353,8 @@ class AuthorRepositoryTest {
         entityManager.flush();
 
         // When
-        List<Author> found1 = authorRepository.findByAuthorNameContainingIgnoreCase("  john  ");
-        List<Author> found2 = authorRepository.findByAuthorNameContainingIgnoreCase("john doe");
+        List<AuthorResponse> found1 = authorRepository.searchResponsesByName("  john  ", 100);
+        List<AuthorResponse> found2 = authorRepository.searchResponsesByName("john doe", 100);
 
         // Then
         // Note: This behavior depends on your database configuration
@@ -314,7 +412,7 @@ class AuthorRepositoryTest {
         entityManager.flush();
 
         // When
-        List<Author> found = authorRepository.findByAuthorNameContainingIgnoreCase("");
+        List<AuthorResponse> found = authorRepository.searchResponsesByName("", 100);
 
         // Then
         // Empty string should match all authors
@@ -342,4 +440,94 @@ class AuthorRepositoryTest {
                 .extracting(Author::getAuthorName)
                 .containsExactlyInAnyOrder("Author 1", "Author 2", "Author 3");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should batch insert new authors and return them in input order")
+    void shouldUpsertNewAuthors() {
+        // When
+        List<Author> stored = authorRepository.upsertAll(List.of(
+                new Author("/authors/OL2A", "Second"),
+                new Author("/authors/OL1A", "First")));
+
+        // Then
+        assertThat(stored)
+                .extracting(Author::getAuthorId)
+                .containsExactly("/authors/OL2A", "/authors/OL1A");
+        assertThat(stored).allSatisfy(author -> assertNotNull(author.getId()));
+        assertEquals(2, authorRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should update existing author instead of failing on unique authorId")
+    void shouldUpsertExistingAuthor() {
+        // Given
+        authorRepository.save(new Author("/authors/OL1A", "Old Name"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Author> stored = authorRepository.upsertAll(List.of(
+                new Author("/authors/OL1A", "New Name"),
+                new Author("/authors/OL3A", "Third")));
+
+        // Then
+        assertEquals(2, stored.size());
+        assertEquals("New Name", stored.get(0).getAuthorName());
+        assertEquals(2, authorRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should take batch-inserted ids in blocks of the pooled sequence, not one sequence value per row")
+    void shouldAllocateUpsertIdsInBlocks() {
+        // Given
+        authorRepository.upsertAll(List.of(new Author("/authors/OL0A", "Existing")));
+        List<Author> authors = new ArrayList<>();
+        authors.add(new Author("/authors/OL0A", "Existing Renamed"));
+        for (int i = 1; i <= 120; i++) {
+            authors.add(new Author("/authors/OL" + i + "A", "Author " + i));
+        }
+        long sequenceBefore = nextSequenceValue();
+
+        // When
+        List<Author> stored = authorRepository.upsertAll(authors);
+        long sequenceAfter = nextSequenceValue();
+        Author saved = authorRepository.saveAndFlush(new Author("/authors/OL999A", "Saved by JPA"));
+
+        // Then - 120 new rows take three values of the increment-50 sequence, the existing row none
+        assertEquals(sequenceBefore + 3 * PooledIds.ALLOCATION_SIZE, sequenceAfter);
+        assertEquals(122, authorRepository.count());
+        assertEquals(121, new HashSet<>(stored.stream().map(Author::getId).toList()).size());
+        assertThat(stored).extracting(Author::getId).doesNotContain(saved.getId());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    @DisplayName("Should never hand out the same id from JPA and JDBC inserts, starting on a fresh sequence")
+    void shouldShareFreshSequenceBetweenJpaAndJdbc() {
+        // Given - a new context, so authors_seq and Hibernate's optimizer both start from scratch
+        List<Long> ids = new ArrayList<>();
+
+        // When - each takes blocks from the sequence in turn
+        ids.add(authorRepository.saveAndFlush(new Author("/authors/OL1A", "JPA 1")).getId());
+        authorRepository.upsertAll(List.of(new Author("/authors/OL2A", "JDBC 1"), new Author("/authors/OL3A", "JDBC 2")))
+                .forEach(author -> ids.add(author.getId()));
+        ids.add(authorRepository.saveAndFlush(new Author("/authors/OL4A", "JPA 2")).getId());
+        List<Author> batch = new ArrayList<>();
+        for (int i = 5; i <= 64; i++) {
+            batch.add(new Author("/authors/OL" + i + "A", "JDBC " + i));
+        }
+        authorRepository.upsertAll(batch).forEach(author -> ids.add(author.getId()));
+        ids.add(authorRepository.saveAndFlush(new Author("/authors/OL65A", "JPA 3")).getId());
+
+        // Then - sequence value v is the block v..v+49 on both sides
+        assertEquals(65, new HashSet<>(ids).size());
+        assertThat(ids.subList(0, 4)).containsExactly(1L, 51L, 52L, 2L);
+        assertThat(ids.subList(4, 64)).containsExactlyElementsOf(LongStream.rangeClosed(101, 160).boxed().toList());
+        assertEquals(3L, ids.get(64));
+    }
+
+    private long nextSequenceValue() {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'AUTHORS_SEQ'", Long.class);
+    }
+}
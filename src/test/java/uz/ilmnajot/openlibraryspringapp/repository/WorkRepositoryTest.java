@@ -2,16 +2,36 @@ package uz.ilmnajot.openlibraryspringapp.repository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import uz.ilmnajot.openlibraryspringapp.entity.Author;
 import uz.ilmnajot.openlibraryspringapp.entity.Work;
-
+import uz.ilmnajot.openlibraryspringapp.mapper.WorkMapper;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.model.StoredWorks;
+import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,7 +40,8 @@ import static org.junit.jupiter.api.Assertions.*;
  * Integration tests for WorkRepository
  * Uses in-memory H2 database
  */
-@DataJpaTest
+@DataJpaTest(showSql = false, properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "openlibrary.works.stream.page-size=2"})
 @DisplayName("Work Repository Integration Tests")
 class WorkRepositoryTest {
 
@@ -33,6 +54,12 @@ class WorkRepositoryTest {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Author testAuthor1;
     private Author testAuthor2;
 
@@ -364,4 +391,458 @@ class WorkRepositoryTest {
         assertThat(found.get().getSubjects())
                 .containsExactly("First", "Second", "Third");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should ingest new works with subjects, covers and author link")
+    void shouldIngestNewWorks() {
+        // Given
+        List<OpenLibraryWorkDoc> docs = List.of(
+                new OpenLibraryWorkDoc("/works/OL1W", "Work 1", "Desc 1",
+                        List.of("Fiction", "Fantasy"), List.of(11L, 12L)),
+                new OpenLibraryWorkDoc("/works/OL2W", "Work 2", null,
+                        List.of(), List.of()));
+
+        // When
+        int inserted = ingest(testAuthor1, docs);
+        entityManager.clear();
+
+        // Then
+        assertEquals(2, inserted);
+        List<Work> works = workRepository.findAllByAuthors_AuthorId("/authors/OL123A");
+        assertEquals(2, works.size());
+        Work work1 = workRepository.findByWorkId("/works/OL1W").orElseThrow();
+        assertThat(work1.getSubjects()).containsExactly("Fiction", "Fantasy");
+        assertThat(work1.getCovers()).containsExactly(11L, 12L);
+        assertThat(workRepository.findByWorkId("/works/OL2W").orElseThrow().getSubjects()).isEmpty();
+        assertThat(work1.getAuthors()).extracting(Author::getAuthorId).containsExactly("/authors/OL123A");
+    }
+
+    @Test
+    @DisplayName("Should only link existing works on re-ingestion without duplicating them")
+    void shouldLinkExistingWorksOnIngest() {
+        // Given
+        List<OpenLibraryWorkDoc> docs = List.of(
+                new OpenLibraryWorkDoc("/works/OL1W", "Work 1", null, List.of("Fiction"), List.of()));
+        ingest(testAuthor1, docs);
+
+        // When
+        int insertedAgain = ingest(testAuthor1, docs);
+        int insertedForCoAuthor = ingest(testAuthor2, docs);
+        entityManager.clear();
+
+        // Then
+        assertEquals(0, insertedAgain);
+        assertEquals(0, insertedForCoAuthor);
+        assertEquals(1, workRepository.count());
+        Work work = workRepository.findByWorkId("/works/OL1W").orElseThrow();
+        assertThat(work.getSubjects()).containsExactly("Fiction");
+        assertThat(work.getAuthors())
+                .extracting(Author::getAuthorId)
+                .containsExactlyInAnyOrder("/authors/OL123A", "/authors/OL456A");
+    }
+
+    @Test
+    @DisplayName("Should not read upserted works as the author's until they are linked")
+    void shouldNotServeWorksBeforeTheyAreLinked() {
+        // Given
+        List<OpenLibraryWorkDoc> docs = List.of(
+                new OpenLibraryWorkDoc("/works/OL1W", "Work 1", null, List.of(), List.of()));
+
+        // When
+        int inserted = workRepository.upsertWorks(docs);
+
+        // Then
+        assertEquals(1, inserted);
+        assertTrue(workRepository.findByWorkId("/works/OL1W").isPresent());
+        assertThat(workRepository.findResponsesByAuthorId("/authors/OL123A")).isEmpty();
+
+        // When
+        int linked = workRepository.linkWorks(testAuthor1, List.of("/works/OL1W"));
+
+        // Then
+        assertEquals(1, linked);
+        assertThat(workRepository.findResponsesByAuthorId("/authors/OL123A"))
+                .extracting(WorkResponse::getWorkId)
+                .containsExactly("/works/OL1W");
+    }
+
+    @Test
+    @DisplayName("Should update a stored work on re-ingestion and move its updated_at only when it changed")
+    void shouldUpdateStoredWorksOnIngest() {
+        // Given - a stored work, last changed long ago
+        ingest(testAuthor1, List.of(
+                new OpenLibraryWorkDoc("/works/OL1W", "Old title", null, List.of("Fiction"), List.of(11L))));
+        jdbcTemplate.update("UPDATE work SET updated_at = TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00+00'");
+        Instant before = jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM work WHERE work_id = '/works/OL1W'", Instant.class);
+
+        // When - refreshed unchanged
+        int unchanged = ingest(testAuthor1, List.of(
+                new OpenLibraryWorkDoc("/works/OL1W", "Old title", null, List.of("Fiction"), List.of(11L))));
+
+        // Then
+        assertEquals(0, unchanged);
+        assertEquals(before, jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM work WHERE work_id = '/works/OL1W'", Instant.class));
+
+        // When - refreshed with a new title, description, subjects and covers
+        int changed = ingest(testAuthor1, List.of(
+                new OpenLibraryWorkDoc("/works/OL1W", "New title", "Now described",
+                        List.of("Fiction", "Fantasy"), List.of(12L))));
+        entityManager.clear();
+
+        // Then
+        assertEquals(0, changed);
+        assertEquals(1, workRepository.count());
+        Work work = workRepository.findByWorkId("/works/OL1W").orElseThrow();
+        assertEquals("New title", work.getTitle());
+        assertEquals("Now described", work.getDescription());
+        assertThat(work.getSubjects()).containsExactly("Fiction", "Fantasy");
+        assertThat(work.getCovers()).containsExactly(12L);
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM work WHERE work_id = '/works/OL1W'", Instant.class).isAfter(before));
+    }
+
+    @Test
+    @DisplayName("Should unlink only the author's works missing from the complete upstream list")
+    void shouldUnlinkWorksNoLongerListed() {
+        // Given - two works of author 1, one of them shared with author 2
+        ingest(testAuthor1, List.of(
+                new OpenLibraryWorkDoc("/works/OL1W", "Kept", null, List.of(), List.of()),
+                new OpenLibraryWorkDoc("/works/OL2W", "Dropped", null, List.of(), List.of())));
+        ingest(testAuthor2, List.of(
+                new OpenLibraryWorkDoc("/works/OL2W", "Dropped", null, List.of(), List.of())));
+
+        // When
+        int unlinked = workRepository.unlinkWorksExcept(testAuthor1, List.of("/works/OL1W"));
+        entityManager.clear();
+
+        // Then - the work stays, as does the co-author's link to it
+        assertEquals(1, unlinked);
+        assertEquals(2, workRepository.count());
+        assertThat(workRepository.findAllByAuthors_AuthorId("/authors/OL123A"))
+                .extracting(Work::getWorkId)
+                .containsExactly("/works/OL1W");
+        assertThat(workRepository.findAllByAuthors_AuthorId("/authors/OL456A"))
+                .extracting(Work::getWorkId)
+                .containsExactly("/works/OL2W");
+    }
+
+    @Test
+    @DisplayName("Should take ingested work ids in blocks of the pooled sequence, not one sequence value per row")
+    void shouldAllocateIngestIdsInBlocks() {
+        // Given
+        List<OpenLibraryWorkDoc> docs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            docs.add(new OpenLibraryWorkDoc("/works/OL" + i + "W", "Work " + i, null, List.of(), List.of()));
+        }
+        long sequenceBefore = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'WORK_SEQ'", Long.class);
+
+        // When
+        int inserted = ingest(testAuthor1, docs);
+        long sequenceAfter = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'WORK_SEQ'", Long.class);
+        Work saved = new Work();
+        saved.setWorkId("/works/OL999W");
+        saved.setTitle("Saved by JPA");
+        saved = workRepository.saveAndFlush(saved);
+
+        // Then - 60 rows take two values of the increment-50 sequence, and JPA's next block is clear of them
+        assertEquals(60, inserted);
+        assertEquals(sequenceBefore + 2 * PooledIds.ALLOCATION_SIZE, sequenceAfter);
+        assertEquals(61, workRepository.count());
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT id FROM work", Long.class)).hasSize(61);
+        assertThat(workRepository.findAllByAuthors_AuthorId("/authors/OL123A"))
+                .extracting(Work::getId)
+                .hasSize(60)
+                .doesNotContain(saved.getId());
+    }
+
+    @Test
+    @DisplayName("Should read works with subjects, covers and authors in a constant number of queries")
+    void shouldReadWorksWithoutNPlusOne() {
+        // Given - 25 works, each with subjects, covers and two authors
+        for (int i = 0; i < 25; i++) {
+            Work work = new Work();
+            work.setWorkId("/works/OL" + i + "W");
+            work.setTitle("Work " + i);
+            work.setSubjects(List.of("Fiction", "Subject " + i));
+            work.setCovers(List.of(1000L + i));
+            work.getAuthors().add(testAuthor1);
+            work.getAuthors().add(testAuthor2);
+            workRepository.save(work);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<WorkResponse> works = workRepository.findAllByAuthors_AuthorId("/authors/OL123A")
+                .stream()
+                .map(new WorkMapper()::toDto)
+                .toList();
+
+        // Then - works with their subject and cover arrays, then one subselect for authors
+        assertEquals(25, works.size());
+        assertThat(works).allSatisfy(work -> {
+            assertEquals(2, work.getSubjects().size());
+            assertEquals(1, work.getCovers().size());
+            assertEquals(2, work.getAuthors().size());
+        });
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should project works of an author into responses matching the entity mapping")
+    void shouldProjectWorksIntoResponses() {
+        // Given
+        Work shared = new Work();
+        shared.setWorkId("/works/OL1W");
+        shared.setTitle("Shared Work");
+        shared.setDescription("Co-authored");
+        shared.setSubjects(List.of("Fiction", "Drama"));
+        shared.setCovers(List.of(11L, 12L));
+        shared.getAuthors().add(testAuthor1);
+        shared.getAuthors().add(testAuthor2);
+        workRepository.save(shared);
+
+        Work other = new Work();
+        other.setWorkId("/works/OL2W");
+        other.setTitle("Other Author Work");
+        other.getAuthors().add(testAuthor2);
+        workRepository.save(other);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<WorkResponse> projected = workRepository.findResponsesByAuthorId("/authors/OL123A");
+        List<WorkResponse> mapped = workRepository.findAllByAuthors_AuthorId("/authors/OL123A")
+                .stream()
+                .map(new WorkMapper()::toDto)
+                .toList();
+
+        // Then
+        assertEquals(1, projected.size());
+        assertEquals(mapped, projected);
+        assertThat(projected.get(0).getAuthors())
+                .extracting(AuthorResponse::getAuthorId)
+                .containsExactly("/authors/OL123A", "/authors/OL456A");
+        assertTrue(workRepository.findResponsesByAuthorId("/authors/UNKNOWN").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should read the works of many authors at once, matching the per-author read")
+    void shouldFindStoredWorksOfManyAuthors() {
+        // Given - one shared work, one work of author 2 only
+        Work shared = new Work();
+        shared.setWorkId("/works/OL1W");
+        shared.setTitle("Shared Work");
+        shared.setSubjects(List.of("Fiction"));
+        shared.getAuthors().add(testAuthor1);
+        shared.getAuthors().add(testAuthor2);
+        workRepository.save(shared);
+
+        Work other = new Work();
+        other.setWorkId("/works/OL2W");
+        other.setTitle("Other Author Work");
+        other.getAuthors().add(testAuthor2);
+        workRepository.save(other);
+        entityManager.flush();
+        entityManager.clear();
+        Instant refreshedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        authorRepository.markWorksRefreshed(testAuthor2.getId(), refreshedAt);
+
+        // When
+        Map<String, StoredWorks> stored = workRepository.findStoredWorksByAuthorIds(
+                List.of("/authors/OL123A", "/authors/OL456A", "/authors/UNKNOWN"));
+
+        // Then
+        assertEquals(2, stored.size());
+        assertNull(stored.get("/authors/OL123A").refreshedAt());
+        assertEquals(refreshedAt, stored.get("/authors/OL456A").refreshedAt());
+        assertEquals(workRepository.findResponsesByAuthorId("/authors/OL123A"), stored.get("/authors/OL123A").works());
+        assertEquals(workRepository.findResponsesByAuthorId("/authors/OL456A"), stored.get("/authors/OL456A").works());
+        assertFalse(stored.containsKey("/authors/UNKNOWN"));
+        assertTrue(workRepository.findStoredWorksByAuthorIds(List.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should stream the same responses, in the same order, as the list read")
+    void shouldStreamWorksIntoResponses() {
+        // Given - co-authored works interleaved with single-author ones, three pages of two
+        for (int i = 1; i <= 5; i++) {
+            Work work = new Work();
+            work.setWorkId("/works/OL" + i + "W");
+            work.setTitle("Work " + i);
+            work.setSubjects(List.of("Subject " + i));
+            work.setCovers(List.of((long) i));
+            work.getAuthors().add(testAuthor1);
+            if (i % 2 == 0) {
+                work.getAuthors().add(testAuthor2);
+            }
+            workRepository.save(work);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<WorkResponse> streamed = new ArrayList<>();
+        long count = workRepository.streamResponsesByAuthorId("/authors/OL123A", streamed::add);
+
+        // Then
+        assertEquals(5, count);
+        assertEquals(workRepository.findResponsesByAuthorId("/authors/OL123A"), streamed);
+        assertEquals(2, streamed.get(1).getAuthors().size());
+        assertEquals(0, workRepository.streamResponsesByAuthorId("/authors/UNKNOWN",
+                work -> fail("no works expected")));
+    }
+
+    @Test
+    @DisplayName("Should version the works of an author by refresh time and link count")
+    void shouldFindWorksVersion() {
+        // Given
+        for (String workId : List.of("/works/OL1W", "/works/OL2W")) {
+            Work work = new Work();
+            work.setWorkId(workId);
+            work.setTitle("Title of " + workId);
+            work.getAuthors().add(testAuthor1);
+            workRepository.save(work);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When + Then - never refreshed
+        WorksVersion version = workRepository.findWorksVersion("/authors/OL123A").orElseThrow();
+        assertNull(version.refreshedAt());
+        assertEquals(2, version.linkCount());
+        assertNotNull(version.updatedAt());
+        assertTrue(workRepository.findWorksVersion("/authors/OL456A").isEmpty());
+        assertTrue(workRepository.findWorksVersion("/authors/UNKNOWN").isEmpty());
+
+        // When + Then - after a refresh
+        Instant refreshedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        authorRepository.markWorksRefreshed(testAuthor1.getId(), refreshedAt);
+        assertEquals(Optional.of(new WorksVersion(refreshedAt, 2, version.updatedAt())),
+                workRepository.findWorksVersion("/authors/OL123A"));
+    }
+
+    @Test
+    @DisplayName("Should move the works version when a co-author is renamed, not when re-fetched unchanged")
+    void shouldVersionWorksByContent() {
+        // Given - a work shared with a co-author, last changed long ago
+        Work work = new Work();
+        work.setWorkId("/works/OL1W");
+        work.setTitle("Shared");
+        work.getAuthors().add(testAuthor1);
+        work.getAuthors().add(testAuthor2);
+        workRepository.save(work);
+        entityManager.flush();
+        entityManager.clear();
+        jdbcTemplate.update("UPDATE authors SET updated_at = TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00+00'");
+        jdbcTemplate.update("UPDATE work SET updated_at = TIMESTAMP WITH TIME ZONE '2020-01-01 00:00:00+00'");
+        WorksVersion before = workRepository.findWorksVersion("/authors/OL123A").orElseThrow();
+
+        // When - the search upsert writes the co-author again, unchanged
+        authorRepository.upsertAll(List.of(new Author("/authors/OL456A", "Test Author 2")));
+
+        // Then
+        assertEquals(Optional.of(before), workRepository.findWorksVersion("/authors/OL123A"));
+
+        // When - and renamed
+        authorRepository.upsertAll(List.of(new Author("/authors/OL456A", "Renamed Author 2")));
+
+        // Then
+        WorksVersion after = workRepository.findWorksVersion("/authors/OL123A").orElseThrow();
+        assertEquals(2, after.linkCount());
+        assertTrue(after.updatedAt().isAfter(before.updatedAt()));
+    }
+
+    @Test
+    @DisplayName("Should index work_authors by author for the works-of-author join")
+    void shouldIndexWorkAuthorsByAuthor() throws SQLException {
+        // Given - schema created by the Liquibase changelog
+        Map<Short, String> columns = new TreeMap<>();
+
+        // When
+        try (Connection connection = dataSource.getConnection();
+             ResultSet rs = connection.getMetaData().getIndexInfo(null, null, "WORK_AUTHORS", false, false)) {
+            while (rs.next()) {
+                if ("IDX_WORK_AUTHORS_AUTHOR_WORK".equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    columns.put(rs.getShort("ORDINAL_POSITION"), rs.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+        }
+
+        // Then
+        assertThat(columns.values()).containsExactly("author_id", "work_id");
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Projection read should beat entity hydration plus WorkMapper")
+    void shouldReadFasterWithProjection() {
+        // Given - one author with 200 works, each with subjects, covers and a co-author
+        for (int i = 0; i < 200; i++) {
+            Work work = new Work();
+            work.setWorkId("/works/OL" + i + "W");
+            work.setTitle("Work " + i);
+            work.setDescription("Description of work " + i);
+            work.setSubjects(List.of("Fiction", "Fantasy", "Subject " + i));
+            work.setCovers(List.of(1000L + i, 2000L + i));
+            work.getAuthors().add(testAuthor1);
+            work.getAuthors().add(testAuthor2);
+            workRepository.save(work);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        WorkMapper mapper = new WorkMapper();
+        Runnable entityPath = () -> {
+            workRepository.findAllByAuthors_AuthorId("/authors/OL123A").stream().map(mapper::toDto).toList();
+            entityManager.clear();
+        };
+        Runnable projectionPath = () -> workRepository.findResponsesByAuthorId("/authors/OL123A");
+        for (int i = 0; i < 200; i++) {
+            entityPath.run();
+            projectionPath.run();
+        }
+
+        // When
+        long[] entity = measure(entityPath);
+        long[] projection = measure(projectionPath);
+
+        // Then
+        System.out.printf("200 works per read: entity+mapper %d us / %d KiB, projection %d us / %d KiB%n",
+                entity[0] / 1000, entity[1] / 1024, projection[0] / 1000, projection[1] / 1024);
+        assertTrue(projection[1] < entity[1], "projection should allocate less per read");
+    }
+
+    /**
+     * Stores the works and links the author to them, the way a completed refresh does
+     */
+    private int ingest(Author author, List<OpenLibraryWorkDoc> docs) {
+        int inserted = workRepository.upsertWorks(docs);
+        workRepository.linkWorks(author, docs.stream().map(OpenLibraryWorkDoc::getKey).toList());
+        return inserted;
+    }
+
+    /**
+     * Average nanoseconds and allocated bytes per run on this thread
+     */
+    private static long[] measure(Runnable read) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int runs = 300;
+        long bytes = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            read.run();
+        }
+        long nanos = System.nanoTime() - start;
+        return new long[]{nanos / runs, (threads.getThreadAllocatedBytes(threadId) - bytes) / runs};
+    }
+}
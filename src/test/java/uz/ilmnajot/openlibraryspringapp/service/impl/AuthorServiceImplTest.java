@@ -4,20 +4,35 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
-import uz.ilmnajot.openlibraryspringapp.entity.Author;
+import org.springframework.http.HttpHeaders;
+import uz.ilmnajot.openlibraryspringapp.cache.AuthorPrefixIndex;
+import uz.ilmnajot.openlibraryspringapp.cache.AuthorSearchCache;
+import uz.ilmnajot.openlibraryspringapp.cache.BackgroundRefresher;
+import uz.ilmnajot.openlibraryspringapp.cache.FreshnessPolicy;
+import uz.ilmnajot.openlibraryspringapp.client.OpenLibraryClient;
+import uz.ilmnajot.openlibraryspringapp.client.UpstreamResponse;
+import uz.ilmnajot.openlibraryspringapp.config.FreshnessProperties;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundGate;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
+import uz.ilmnajot.openlibraryspringapp.concurrent.SingleFlight;
 
 import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
 import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryAuthorDoc;
 import uz.ilmnajot.openlibraryspringapp.model.OpenLibrarySearchResponse;
 import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,14 +50,29 @@ class AuthorServiceImplTest {
     private AuthorRepository authorRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private OpenLibraryClient openLibraryClient;
+
+    @Mock
+    private AuthorSearchCache authorSearchCache;
+
+    @Spy
+    private SingleFlight<String, List<AuthorResponse>> authorSearchFlight = new SingleFlight<>("authorSearch");
+
+    @Mock
+    private AuthorPrefixIndex authorPrefixIndex;
+
+    @Spy
+    private FreshnessPolicy freshnessPolicy = new FreshnessPolicy(new FreshnessProperties());
+
+    @Mock
+    private BackgroundRefresher backgroundRefresher;
 
     @InjectMocks
     private AuthorServiceImpl authorService;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(authorService, "baseUrl", "https://openlibrary.org");
+        ReflectionTestUtils.setField(authorService, "maxResults", 100);
     }
 
     @Test
@@ -50,10 +80,8 @@ class AuthorServiceImplTest {
     void shouldReturnAuthorsFromDBWhenExists() {
 
         String searchName = "Elbek";
-        Author author = new Author();
-        author.setAuthorId("/authors/A1");
-        author.setAuthorName("Elbek Umarov");
-        when(authorRepository.findByAuthorNameContainingIgnoreCase(searchName))
+        AuthorResponse author = new AuthorResponse("/authors/A1", "Elbek Umarov");
+        when(authorRepository.searchResponsesByName(searchName, 100))
                 .thenReturn(List.of(author));
 
         // When
@@ -67,9 +95,9 @@ class AuthorServiceImplTest {
 
         // Verify interactions
         verify(authorRepository, times(1))
-                .findByAuthorNameContainingIgnoreCase(searchName);
-        verify(restTemplate, never()).getForObject(anyString(), any());
-        verify(authorRepository, never()).save(any());
+                .searchResponsesByName(searchName, 100);
+        verify(openLibraryClient, never()).searchAuthors(anyString(), anyBoolean());
+        verify(authorRepository, never()).upsertAll(anyList());
     }
 
     @Test
@@ -79,7 +107,7 @@ class AuthorServiceImplTest {
         String searchName = "Jack";
 
         // Mock repository to return empty list
-        when(authorRepository.findByAuthorNameContainingIgnoreCase(searchName))
+        when(authorRepository.searchResponsesByName(searchName, 100))
                 .thenReturn(Collections.emptyList());
 
         // Mock API response
@@ -91,11 +119,11 @@ class AuthorServiceImplTest {
         apiResponse.setNumFound(1);
         apiResponse.setDocs(List.of(doc));
 
-        when(restTemplate.getForObject(anyString(), eq(OpenLibrarySearchResponse.class)))
-                .thenReturn(apiResponse);
+        when(openLibraryClient.searchAuthors(anyString(), anyBoolean()))
+                .thenReturn(upstream(apiResponse));
 
-        // Mock save to return the same author
-        when(authorRepository.save(any(Author.class)))
+        // Mock upsert to return the same authors
+        when(authorRepository.upsertAll(anyList()))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -109,10 +137,12 @@ class AuthorServiceImplTest {
 
         // Verify
         verify(authorRepository, times(1))
-                .findByAuthorNameContainingIgnoreCase(searchName);
-        verify(restTemplate, times(1))
-                .getForObject(anyString(), eq(OpenLibrarySearchResponse.class));
-        verify(authorRepository, times(1)).save(any(Author.class));
+                .searchResponsesByName(searchName, 100);
+        verify(openLibraryClient, times(1))
+                .searchAuthors(anyString(), anyBoolean());
+        verify(authorRepository, times(1)).upsertAll(anyList());
+        verify(authorRepository, never()).save(any());
+        verify(authorPrefixIndex, times(1)).addAll(List.of(new AuthorResponse("/authors/OL123A", "Jack Anderson")));
     }
 
     @Test
@@ -121,15 +151,15 @@ class AuthorServiceImplTest {
         // Given
         String searchName = "NonExistentAuthor";
 
-        when(authorRepository.findByAuthorNameContainingIgnoreCase(searchName))
+        when(authorRepository.searchResponsesByName(searchName, 100))
                 .thenReturn(Collections.emptyList());
 
         OpenLibrarySearchResponse emptyResponse = new OpenLibrarySearchResponse();
         emptyResponse.setNumFound(0);
         emptyResponse.setDocs(Collections.emptyList());
 
-        when(restTemplate.getForObject(anyString(), eq(OpenLibrarySearchResponse.class)))
-                .thenReturn(emptyResponse);
+        when(openLibraryClient.searchAuthors(anyString(), anyBoolean()))
+                .thenReturn(upstream(emptyResponse));
 
         // When
         List<AuthorResponse> result = authorService.searchAuthor(searchName);
@@ -137,7 +167,23 @@ class AuthorServiceImplTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty(), "Result should be empty");
-        verify(authorRepository, never()).save(any());
+        verify(authorRepository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should pass a rejected outbound call through unwrapped and cache nothing")
+    void shouldPassOutboundRejectionThrough() {
+        // Given
+        String searchName = "UnknownAuthor";
+        when(authorRepository.searchResponsesByName(searchName, 100)).thenReturn(Collections.emptyList());
+        OutboundRejectedException rejection = new OutboundRejectedException("rejected",
+                OutboundGate.Rejection.RATE_LIMIT, Duration.ofSeconds(1));
+        when(openLibraryClient.searchAuthors(anyString(), anyBoolean())).thenThrow(rejection);
+
+        // When + Then
+        assertSame(rejection, assertThrows(OutboundRejectedException.class,
+                () -> authorService.searchAuthor(searchName)));
+        verify(authorSearchCache, never()).put(anyString(), anyList());
     }
 
     @Test
@@ -146,10 +192,10 @@ class AuthorServiceImplTest {
         // Given
         String searchName = "UnknownAuthor";
 
-        when(authorRepository.findByAuthorNameContainingIgnoreCase(searchName))
+        when(authorRepository.searchResponsesByName(searchName, 100))
                 .thenReturn(Collections.emptyList());
 
-        when(restTemplate.getForObject(anyString(), eq(OpenLibrarySearchResponse.class)))
+        when(openLibraryClient.searchAuthors(anyString(), anyBoolean()))
                 .thenThrow(new RuntimeException("API connection failed"));
 
         // When & Then
@@ -161,10 +207,10 @@ class AuthorServiceImplTest {
                 exception.getMessage().contains("API connection failed"));
 
         verify(authorRepository, times(1))
-                .findByAuthorNameContainingIgnoreCase(searchName);
-        verify(restTemplate, times(1))
-                .getForObject(anyString(), eq(OpenLibrarySearchResponse.class));
-        verify(authorRepository, never()).save(any());
+                .searchResponsesByName(searchName, 100);
+        verify(openLibraryClient, times(1))
+                .searchAuthors(anyString(), anyBoolean());
+        verify(authorRepository, never()).upsertAll(anyList());
     }
 
     @Test
@@ -173,7 +219,7 @@ class AuthorServiceImplTest {
         // Given
         String searchName = "Smith";
 
-        when(authorRepository.findByAuthorNameContainingIgnoreCase(searchName))
+        when(authorRepository.searchResponsesByName(searchName, 100))
                 .thenReturn(Collections.emptyList());
 
         OpenLibraryAuthorDoc doc1 = new OpenLibraryAuthorDoc();
@@ -188,10 +234,10 @@ class AuthorServiceImplTest {
         response.setNumFound(2);
         response.setDocs(List.of(doc1, doc2));
 
-        when(restTemplate.getForObject(anyString(), eq(OpenLibrarySearchResponse.class)))
-                .thenReturn(response);
+        when(openLibraryClient.searchAuthors(anyString(), anyBoolean()))
+                .thenReturn(upstream(response));
 
-        when(authorRepository.save(any(Author.class)))
+        when(authorRepository.upsertAll(anyList()))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -200,7 +246,7 @@ class AuthorServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(2, result.size(), "Should return 2 authors");
-        verify(authorRepository, times(2)).save(any(Author.class));
+        verify(authorRepository, times(1)).upsertAll(argThat(authors -> authors.size() == 2));
     }
 
     @Test
@@ -209,11 +255,11 @@ class AuthorServiceImplTest {
         // Given
         String searchName = "Test";
 
-        when(authorRepository.findByAuthorNameContainingIgnoreCase(searchName))
+        when(authorRepository.searchResponsesByName(searchName, 100))
                 .thenReturn(Collections.emptyList());
 
-        when(restTemplate.getForObject(anyString(), eq(OpenLibrarySearchResponse.class)))
-                .thenReturn(null);
+        when(openLibraryClient.searchAuthors(anyString(), anyBoolean()))
+                .thenReturn(upstream(null));
 
         // When
         List<AuthorResponse> result = authorService.searchAuthor(searchName);
@@ -221,23 +267,21 @@ class AuthorServiceImplTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(authorRepository, never()).save(any());
+        verify(authorRepository, never()).upsertAll(anyList());
     }
 
     @Test
     @DisplayName("Should perform case-insensitive search")
     void shouldPerformCaseInsensitiveSearch() {
         // Given
-        Author author = new Author();
-        author.setAuthorId("/authors/A1");
-        author.setAuthorName("Elbek Umarov");
+        AuthorResponse author = new AuthorResponse("/authors/A1", "Elbek Umarov");
 
         // Mock for different cases
-        when(authorRepository.findByAuthorNameContainingIgnoreCase("ELBEK"))
+        when(authorRepository.searchResponsesByName("ELBEK", 100))
                 .thenReturn(List.of(author));
-        when(authorRepository.findByAuthorNameContainingIgnoreCase("elbek"))
+        when(authorRepository.searchResponsesByName("elbek", 100))
                 .thenReturn(List.of(author));
-        when(authorRepository.findByAuthorNameContainingIgnoreCase("ElBeK"))
+        when(authorRepository.searchResponsesByName("ElBeK", 100))
                 .thenReturn(List.of(author));
 
         // When
@@ -253,4 +297,131 @@ class AuthorServiceImplTest {
         assertEquals("Elbek Umarov", result2.get(0).getAuthorName());
         assertEquals("Elbek Umarov", result3.get(0).getAuthorName());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should serve repeated query from cache without touching DB or API")
+    void shouldReturnCachedResultWithoutDBOrApi() {
+        // Given
+        AuthorResponse cached = new AuthorResponse("/authors/A1", "Elbek Umarov");
+        when(authorSearchCache.get("elbek umarov"))
+                .thenReturn(Optional.of(List.of(cached)));
+
+        // When
+        List<AuthorResponse> result = authorService.searchAuthor("  Elbek   UMAROV ");
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("Elbek Umarov", result.get(0).getAuthorName());
+        verify(authorRepository, never()).searchResponsesByName(anyString(), anyInt());
+        verify(openLibraryClient, never()).searchAuthors(anyString(), anyBoolean());
+        verify(authorSearchCache, never()).put(anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("Should cache empty API result as a negative entry")
+    void shouldCacheNegativeResult() {
+        // Given
+        String searchName = "Nobody";
+        when(authorRepository.searchResponsesByName(searchName, 100))
+                .thenReturn(Collections.emptyList());
+        when(openLibraryClient.searchAuthors(anyString(), anyBoolean()))
+                .thenReturn(upstream(null));
+
+        // When
+        List<AuthorResponse> result = authorService.searchAuthor(searchName);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(authorSearchCache, times(1)).put("nobody", List.of());
+    }
+
+    @Test
+    @DisplayName("Should serve stale authors at once and queue a background refresh")
+    void shouldServeStaleAuthorsAndRefreshInBackground() {
+        // Given - fetched before the 1 day soft TTL
+        AuthorResponse author = new AuthorResponse("/authors/A1", "Elbek Umarov");
+        when(authorRepository.searchResponsesByName("Elbek", 100)).thenReturn(List.of(author));
+        when(authorRepository.findOldestFetchedAt(List.of("/authors/A1")))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(2))));
+
+        // When
+        List<AuthorResponse> result = authorService.searchAuthor("Elbek");
+
+        // Then
+        assertEquals(List.of(author), result);
+        verify(backgroundRefresher).schedule(eq("authors:elbek"), any(Runnable.class));
+        verify(openLibraryClient, never()).searchAuthors(anyString(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should fall back to expired authors when OpenLibrary fails")
+    void shouldServeExpiredAuthorsWhenRefreshFails() {
+        // Given - fetched before the 30 day hard TTL
+        AuthorResponse author = new AuthorResponse("/authors/A1", "Elbek Umarov");
+        when(authorRepository.searchResponsesByName("Elbek", 100)).thenReturn(List.of(author));
+        when(authorRepository.findOldestFetchedAt(List.of("/authors/A1")))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(31))));
+        when(openLibraryClient.searchAuthors(anyString(), anyBoolean()))
+                .thenThrow(new RuntimeException("API connection failed"));
+
+        // When
+        List<AuthorResponse> result = authorService.searchAuthor("Elbek");
+
+        // Then
+        assertEquals(List.of(author), result);
+        verify(openLibraryClient, times(1)).searchAuthors(anyString(), anyBoolean());
+        verifyNoInteractions(backgroundRefresher);
+    }
+
+    @Test
+    @DisplayName("Should revalidate stale authors in the background and only bump them on 304")
+    void shouldKeepStaleAuthorsWhenNotModified() {
+        // Given
+        AuthorResponse author = new AuthorResponse("/authors/A1", "Elbek Umarov");
+        when(authorRepository.searchResponsesByName("Elbek", 100)).thenReturn(List.of(author));
+        when(authorRepository.findOldestFetchedAt(List.of("/authors/A1")))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(2))));
+        UpstreamResponse<OpenLibrarySearchResponse> notModified = UpstreamResponse.notModified(
+                "https://openlibrary.org/search/authors.json?q=Elbek", new HttpHeaders());
+        when(openLibraryClient.searchAuthors("Elbek", true)).thenReturn(notModified);
+        authorService.searchAuthor("Elbek");
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(backgroundRefresher).schedule(eq("authors:elbek"), refresh.capture());
+        // the foreground search cached the stale authors; only the refresh's own writes count below
+        clearInvocations(authorSearchCache);
+
+        // When
+        refresh.getValue().run();
+
+        // Then
+        verify(authorRepository).markFetched(eq(List.of("/authors/A1")), any(Instant.class));
+        verify(openLibraryClient).storeValidators(notModified);
+        verify(authorRepository, never()).upsertAll(anyList());
+        verify(authorSearchCache).put("elbek", List.of(author));
+    }
+
+    @Test
+    @DisplayName("Should store validators only after the searched authors are saved")
+    void shouldStoreValidatorsAfterUpsert() {
+        // Given
+        when(authorRepository.searchResponsesByName("Jack", 100)).thenReturn(Collections.emptyList());
+        OpenLibraryAuthorDoc doc = new OpenLibraryAuthorDoc();
+        doc.setKey("/authors/OL123A");
+        doc.setName("Jack Anderson");
+        UpstreamResponse<OpenLibrarySearchResponse> response = upstream(new OpenLibrarySearchResponse(1, List.of(doc)));
+        when(openLibraryClient.searchAuthors("Jack", false)).thenReturn(response);
+        when(authorRepository.upsertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        authorService.searchAuthor("Jack");
+
+        // Then
+        InOrder order = inOrder(authorRepository, openLibraryClient);
+        order.verify(authorRepository).upsertAll(anyList());
+        order.verify(openLibraryClient).storeValidators(response);
+    }
+
+    private static UpstreamResponse<OpenLibrarySearchResponse> upstream(OpenLibrarySearchResponse body) {
+        return UpstreamResponse.of("https://openlibrary.org/search/authors.json", body, new HttpHeaders());
+    }
+}
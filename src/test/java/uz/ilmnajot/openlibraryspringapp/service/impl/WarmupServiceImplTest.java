@@ -0,0 +1,161 @@
+package uz.ilmnajot.openlibraryspringapp.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import uz.ilmnajot.openlibraryspringapp.config.WarmupProperties;
+import uz.ilmnajot.openlibraryspringapp.model.WarmupStatusResponse;
+import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
+import uz.ilmnajot.openlibraryspringapp.service.AuthorService;
+import uz.ilmnajot.openlibraryspringapp.service.WorkService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WarmupServiceImpl
+ * Uses an executor that queues tasks until they are run by hand
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Warmup Service Unit Tests")
+class WarmupServiceImplTest {
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private WorkService workService;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private WarmupProperties properties;
+
+    private WarmupServiceImpl warmupService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WarmupProperties();
+        properties.setQueries(List.of("tolkien"));
+        properties.setAuthorIds(List.of("/authors/OL1A", "/authors/OL2A", "/authors/OL3A"));
+        properties.setLearnedAuthors(10);
+        properties.setReadyThreshold(0.75);
+        warmupService = new WarmupServiceImpl(properties, authorService, workService, authorRepository, queued::add);
+    }
+
+    @Test
+    @DisplayName("Should preload queries and configured plus learned authors without duplicates")
+    void shouldPreloadQueriesAndAuthors() {
+        // Given - one learned author is also configured
+        when(authorRepository.findRecentlyRefreshedAuthorIds(any(Pageable.class)))
+                .thenReturn(List.of("/authors/OL3A", "/authors/OL4A"));
+
+        // When
+        WarmupStatusResponse started = warmupService.start();
+        queued.forEach(Runnable::run);
+
+        // Then
+        assertEquals(5, started.getTotal());
+        assertTrue(started.isRunning());
+        verify(authorService).searchAuthor("tolkien");
+        verify(workService).getWorksByAuthor("/authors/OL1A");
+        verify(workService).getWorksByAuthor("/authors/OL2A");
+        verify(workService).getWorksByAuthor("/authors/OL3A");
+        verify(workService).getWorksByAuthor("/authors/OL4A");
+        WarmupStatusResponse finished = warmupService.status();
+        assertFalse(finished.isRunning());
+        assertEquals(5, finished.getSucceeded());
+        assertNotNull(finished.getFinishedAt());
+    }
+
+    @Test
+    @DisplayName("Should report ready only once the threshold of tasks succeeded")
+    void shouldBecomeReadyAtThreshold() {
+        // Given - 4 tasks, threshold 0.75
+        properties.setLearnedAuthors(0);
+
+        // When / Then
+        assertFalse(warmupService.isReady(), "not ready before the first warm-up");
+        warmupService.start();
+        queued.get(0).run();
+        queued.get(1).run();
+        assertFalse(warmupService.isReady());
+        queued.get(2).run();
+        assertTrue(warmupService.isReady());
+        assertTrue(warmupService.status().isRunning());
+    }
+
+    @Test
+    @DisplayName("Should report ready once every task finished even if too many failed")
+    void shouldBecomeReadyWhenFinishedWithFailures() {
+        // Given
+        properties.setLearnedAuthors(0);
+        when(workService.getWorksByAuthor(anyString())).thenThrow(new RuntimeException("upstream down"));
+
+        // When
+        warmupService.start();
+        queued.forEach(Runnable::run);
+
+        // Then
+        WarmupStatusResponse status = warmupService.status();
+        assertTrue(status.isReady());
+        assertEquals(1, status.getSucceeded());
+        assertEquals(3, status.getFailed());
+    }
+
+    @Test
+    @DisplayName("Should record a failed learned-authors lookup and still warm up and become ready")
+    void shouldRecordFailedLearnedAuthorsLookup() {
+        // Given
+        when(authorRepository.findRecentlyRefreshedAuthorIds(any(Pageable.class)))
+                .thenThrow(new RuntimeException("database down"));
+
+        // When
+        WarmupStatusResponse started = warmupService.start();
+        queued.forEach(Runnable::run);
+
+        // Then - the query and the three configured authors ran, the lookup counts as one failure
+        assertEquals(5, started.getTotal());
+        assertEquals(4, queued.size());
+        WarmupStatusResponse status = warmupService.status();
+        assertFalse(status.isRunning());
+        assertEquals(4, status.getSucceeded());
+        assertEquals(1, status.getFailed());
+        assertTrue(warmupService.isReady());
+    }
+
+    @Test
+    @DisplayName("Should not restart a warm-up that is still running")
+    void shouldNotRestartRunningWarmup() {
+        // Given
+        properties.setLearnedAuthors(0);
+        warmupService.start();
+
+        // When
+        warmupService.start();
+
+        // Then
+        assertEquals(4, queued.size());
+    }
+
+    @Test
+    @DisplayName("Should be ready at once when warm-up is disabled")
+    void shouldBeReadyWhenDisabled() {
+        properties.setEnabled(false);
+
+        warmupService.warmUpOnStartup();
+
+        assertTrue(warmupService.isReady());
+        assertTrue(queued.isEmpty());
+    }
+}
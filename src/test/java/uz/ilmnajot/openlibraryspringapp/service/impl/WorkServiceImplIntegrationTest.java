@@ -0,0 +1,117 @@
+package uz.ilmnajot.openlibraryspringapp.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import uz.ilmnajot.openlibraryspringapp.cache.AuthorPrefixIndex;
+import uz.ilmnajot.openlibraryspringapp.cache.BackgroundRefresher;
+import uz.ilmnajot.openlibraryspringapp.cache.FreshnessPolicy;
+import uz.ilmnajot.openlibraryspringapp.client.OpenLibraryClient;
+import uz.ilmnajot.openlibraryspringapp.client.UpstreamResponse;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundGate;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
+import uz.ilmnajot.openlibraryspringapp.concurrent.SingleFlight;
+import uz.ilmnajot.openlibraryspringapp.config.FreshnessProperties;
+import uz.ilmnajot.openlibraryspringapp.entity.Author;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorksPage;
+import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
+import uz.ilmnajot.openlibraryspringapp.repository.WorkRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration tests for WorkServiceImpl
+ * Real repositories on the in-memory H2 database, OpenLibrary mocked
+ */
+@DataJpaTest(showSql = false)
+@DisplayName("Work Service Integration Tests")
+class WorkServiceImplIntegrationTest {
+
+    @Autowired
+    private WorkRepository workRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    private OpenLibraryClient openLibraryClient;
+
+    private WorkServiceImpl workService;
+
+    @BeforeEach
+    void setUp() {
+        openLibraryClient = mock(OpenLibraryClient.class);
+        workService = new WorkServiceImpl(workRepository, authorRepository, openLibraryClient,
+                new SingleFlight<>("authorWorks"), mock(AuthorPrefixIndex.class),
+                new FreshnessPolicy(new FreshnessProperties()), mock(BackgroundRefresher.class),
+                new SyncTaskExecutor());
+        ReflectionTestUtils.setField(workService, "flightTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(workService, "pageSize", 100);
+        ReflectionTestUtils.setField(workService, "maxPages", 3);
+        ReflectionTestUtils.setField(workService, "batchTimeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should answer a fetch with the same works a later DB hit serves, co-authors included")
+    void shouldServeFetchedWorksLikeStoredWorks() {
+        // Given - the work is already stored for a co-author; the author itself is not stored yet
+        Author coAuthor = authorRepository.save(new Author("/authors/OL2A", "Co Author"));
+        workRepository.upsertWorks(List.of(
+                new OpenLibraryWorkDoc("/works/OL1W", "Shared", null, List.of("Fiction"), List.of(7L))));
+        workRepository.linkWorks(coAuthor, List.of("/works/OL1W"));
+        OpenLibraryWorkDoc fetchedDoc = new OpenLibraryWorkDoc("/works/OL1W", "Shared", "Now described",
+                List.of("Fiction"), List.of(7L));
+        when(openLibraryClient.fetchWorksPage("/authors/OL1A/works.json?limit=100", false))
+                .thenReturn(UpstreamResponse.of("https://openlibrary.org/authors/OL1A/works.json",
+                        new OpenLibraryWorksPage(List.of(fetchedDoc), null), new HttpHeaders()));
+        when(openLibraryClient.fetchAuthorName("/authors/OL1A")).thenReturn(Optional.of("Author"));
+
+        // When
+        List<WorkResponse> fetched = workService.getWorksByAuthor("OL1A");
+        List<WorkResponse> stored = workService.getWorksByAuthor("OL1A");
+
+        // Then
+        assertEquals(stored, fetched);
+        assertEquals(1, fetched.size());
+        assertEquals("Now described", fetched.get(0).getDescription());
+        assertThat(fetched.get(0).getAuthors()).containsExactly(
+                new AuthorResponse("/authors/OL2A", "Co Author"),
+                new AuthorResponse("/authors/OL1A", "Author"));
+        verify(openLibraryClient, times(1)).fetchWorksPage(anyString(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should serve nothing from the DB for an author whose second page was rejected")
+    void shouldNotServePartiallyIngestedAuthor() {
+        // Given
+        when(openLibraryClient.fetchWorksPage("/authors/OL1A/works.json?limit=100", false))
+                .thenReturn(UpstreamResponse.of("https://openlibrary.org/authors/OL1A/works.json",
+                        new OpenLibraryWorksPage(List.of(new OpenLibraryWorkDoc("/works/OL1W", "First", null,
+                                List.of(), List.of())), "/authors/OL1A/works.json?offset=100"),
+                        new HttpHeaders()));
+        when(openLibraryClient.fetchAuthorName("/authors/OL1A")).thenReturn(Optional.of("Author"));
+        when(openLibraryClient.fetchWorksPageAsync(anyString())).thenReturn(CompletableFuture.failedFuture(
+                new OutboundRejectedException("rejected", OutboundGate.Rejection.BULKHEAD, Duration.ofSeconds(1))));
+
+        // When
+        assertThrows(OutboundRejectedException.class, () -> workService.getWorksByAuthor("OL1A"));
+
+        // Then - the author was stored, but neither linked to page 1 nor marked refreshed
+        assertThat(workRepository.findResponsesByAuthorId("/authors/OL1A")).isEmpty();
+        assertThat(authorRepository.findWorksRefreshedAt("/authors/OL1A")).isEmpty();
+    }
+}
@@ -1,27 +1,49 @@
 package uz.ilmnajot.openlibraryspringapp.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
+import uz.ilmnajot.openlibraryspringapp.client.OpenLibraryClient;
+import uz.ilmnajot.openlibraryspringapp.client.UpstreamResponse;
+import uz.ilmnajot.openlibraryspringapp.cache.AuthorPrefixIndex;
+import uz.ilmnajot.openlibraryspringapp.cache.BackgroundRefresher;
+import uz.ilmnajot.openlibraryspringapp.cache.FreshnessPolicy;
+import uz.ilmnajot.openlibraryspringapp.config.FreshnessProperties;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundGate;
+import uz.ilmnajot.openlibraryspringapp.concurrent.OutboundRejectedException;
+import uz.ilmnajot.openlibraryspringapp.concurrent.SingleFlight;
 import uz.ilmnajot.openlibraryspringapp.entity.Author;
 import uz.ilmnajot.openlibraryspringapp.entity.Work;
-import uz.ilmnajot.openlibraryspringapp.mapper.WorkMapper;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorResponse;
+import uz.ilmnajot.openlibraryspringapp.model.AuthorWorksResult;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorkDoc;
+import uz.ilmnajot.openlibraryspringapp.model.OpenLibraryWorksPage;
+import uz.ilmnajot.openlibraryspringapp.model.StoredWorks;
 import uz.ilmnajot.openlibraryspringapp.model.WorkResponse;
+import uz.ilmnajot.openlibraryspringapp.model.WorksVersion;
 import uz.ilmnajot.openlibraryspringapp.repository.AuthorRepository;
 import uz.ilmnajot.openlibraryspringapp.repository.WorkRepository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -42,20 +64,32 @@ class WorkServiceImplTest {
     private AuthorRepository authorRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private OpenLibraryClient openLibraryClient;
+
+    @Spy
+    private SingleFlight<String, List<WorkResponse>> authorWorksFlight = new SingleFlight<>("authorWorks");
+
+    @Mock
+    private AuthorPrefixIndex authorPrefixIndex;
+
+    @Spy
+    private FreshnessPolicy freshnessPolicy = new FreshnessPolicy(new FreshnessProperties());
 
     @Mock
-    private WorkMapper workMapper;
+    private BackgroundRefresher backgroundRefresher;
+
+    @Spy
+    private Executor worksBatchExecutor = new SyncTaskExecutor();
 
     @InjectMocks
     private WorkServiceImpl workService;
 
-    private ObjectMapper objectMapper;
-
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(workService, "baseUrl", "https://openlibrary.org");
-        objectMapper = new ObjectMapper();
+        ReflectionTestUtils.setField(workService, "flightTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(workService, "pageSize", 100);
+        ReflectionTestUtils.setField(workService, "maxPages", 3);
+        ReflectionTestUtils.setField(workService, "batchTimeout", Duration.ofSeconds(5));
     }
 
     @Test
@@ -64,22 +98,13 @@ class WorkServiceImplTest {
         // Given
         String authorId = "/authors/OL123A";
 
-        Author author = new Author();
-        author.setAuthorId(authorId);
-        author.setAuthorName("Test Author");
-
-        Work work = new Work();
-        work.setWorkId("/works/OL456W");
-        work.setTitle("Test Work");
-        work.getAuthors().add(author);
-
         WorkResponse workResponse = new WorkResponse();
         workResponse.setWorkId("/works/OL456W");
         workResponse.setTitle("Test Work");
+        workResponse.setAuthors(List.of(new AuthorResponse(authorId, "Test Author")));
 
-        when(workRepository.findAllByAuthors_AuthorId(authorId))
-                .thenReturn(List.of(work));
-        when(workMapper.toDto(work)).thenReturn(workResponse);
+        when(workRepository.findResponsesByAuthorId(authorId))
+                .thenReturn(List.of(workResponse));
 
         // When
         List<WorkResponse> result = workService.getWorksByAuthor(authorId);
@@ -92,9 +117,8 @@ class WorkServiceImplTest {
 
         // Verify interactions
         verify(workRepository, times(1))
-                .findAllByAuthors_AuthorId(authorId);
-        verify(workMapper, times(1)).toDto(work);
-        verify(restTemplate, never()).getForObject(anyString(), any());
+                .findResponsesByAuthorId(authorId);
+        verify(openLibraryClient, never()).fetchWorksPage(anyString(), anyBoolean());
         verify(workRepository, never()).save(any());
     }
 
@@ -102,18 +126,13 @@ class WorkServiceImplTest {
     @DisplayName("Should normalize author ID correctly")
     void shouldNormalizeAuthorId() {
         // Given
-        Work work = new Work();
-        work.setWorkId("/works/OL456W");
-        work.setTitle("Test Work");
-
         WorkResponse workResponse = new WorkResponse();
         workResponse.setWorkId("/works/OL456W");
         workResponse.setTitle("Test Work");
 
         // Test different formats
-        when(workRepository.findAllByAuthors_AuthorId("/authors/OL123A"))
-                .thenReturn(List.of(work));
-        when(workMapper.toDto(work)).thenReturn(workResponse);
+        when(workRepository.findResponsesByAuthorId("/authors/OL123A"))
+                .thenReturn(List.of(workResponse));
 
         // When - Test with "OL123A"
         List<WorkResponse> result1 = workService.getWorksByAuthor("OL123A");
@@ -130,17 +149,20 @@ class WorkServiceImplTest {
         assertEquals(1, result3.size());
 
         verify(workRepository, times(3))
-                .findAllByAuthors_AuthorId("/authors/OL123A");
+                .findResponsesByAuthorId("/authors/OL123A");
     }
 
     @Test
     @DisplayName("Should fetch from API when database is empty")
-    void shouldFetchFromApiWhenDBIsEmpty() throws Exception {
+    void shouldFetchFromApiWhenDBIsEmpty() {
         // Given
         String authorId = "/authors/OL123A";
 
-        when(workRepository.findAllByAuthors_AuthorId(authorId))
-                .thenReturn(Collections.emptyList());
+        WorkResponse workResponse = new WorkResponse();
+        workResponse.setWorkId("/works/OL456W");
+        workResponse.setTitle("Test Work from API");
+        when(workRepository.findResponsesByAuthorId(authorId))
+                .thenReturn(Collections.emptyList(), List.of(workResponse));
 
         // Mock author
         Author author = new Author();
@@ -150,38 +172,14 @@ class WorkServiceImplTest {
                 .thenReturn(Optional.of(author));
 
         // Mock API response
-        String apiResponse = """
-                {
-                    "entries": [
-                        {
-                            "key": "/works/OL456W",
-                            "title": "Test Work from API",
-                            "description": "Test description",
-                            "subjects": ["Fiction", "Adventure"],
-                            "covers": [12345, 67890]
-                        }
-                    ]
-                }
-                """;
-        JsonNode jsonNode = objectMapper.readTree(apiResponse);
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class)))
-                .thenReturn(jsonNode);
-
-        // Mock work save
-        Work savedWork = new Work();
-        savedWork.setWorkId("/works/OL456W");
-        savedWork.setTitle("Test Work from API");
-        savedWork.getAuthors().add(author);
-        when(workRepository.findByWorkId("/works/OL456W"))
-                .thenReturn(Optional.empty());
-        when(workRepository.save(any(Work.class)))
-                .thenReturn(savedWork);
+        OpenLibraryWorkDoc doc = new OpenLibraryWorkDoc("/works/OL456W", "Test Work from API",
+                "Test description", List.of("Fiction", "Adventure"), List.of(12345L, 67890L));
+        when(openLibraryClient.fetchWorksPage("/authors/OL123A/works.json?limit=100", false))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(doc), null)));
 
-        WorkResponse workResponse = new WorkResponse();
-        workResponse.setWorkId("/works/OL456W");
-        workResponse.setTitle("Test Work from API");
-        when(workMapper.toDto(any(Work.class)))
-                .thenReturn(workResponse);
+        // Mock batch ingestion
+        when(workRepository.upsertWorks(anyList()))
+                .thenReturn(1);
 
         // When
         List<WorkResponse> result = workService.getWorksByAuthor(authorId);
@@ -191,20 +189,26 @@ class WorkServiceImplTest {
         assertEquals(1, result.size());
         assertEquals("Test Work from API", result.get(0).getTitle());
 
-        verify(workRepository, times(1))
-                .findAllByAuthors_AuthorId(authorId);
-        verify(restTemplate, times(1))
-                .getForObject(anyString(), eq(JsonNode.class));
-        verify(workRepository, times(1)).save(any(Work.class));
+        // once before the fetch, once to read back what was stored
+        verify(workRepository, times(2))
+                .findResponsesByAuthorId(authorId);
+        verify(openLibraryClient, times(1))
+                .fetchWorksPage(anyString(), anyBoolean());
+        verify(openLibraryClient, never()).fetchWorksPageAsync(anyString());
+        verify(workRepository, times(1)).upsertWorks(List.of(doc));
+        verify(workRepository).linkWorks(author, Set.of("/works/OL456W"));
+        verify(workRepository).unlinkWorksExcept(author, Set.of("/works/OL456W"));
+        verify(workRepository, never()).save(any());
+        verify(workRepository, never()).findByWorkId(anyString());
     }
 
     @Test
     @DisplayName("Should return empty list when API returns no works")
-    void shouldReturnEmptyListWhenApiReturnsNoWorks() throws Exception {
+    void shouldReturnEmptyListWhenApiReturnsNoWorks() {
         // Given
         String authorId = "/authors/OL123A";
 
-        when(workRepository.findAllByAuthors_AuthorId(authorId))
+        when(workRepository.findResponsesByAuthorId(authorId))
                 .thenReturn(Collections.emptyList());
 
         Author author = new Author();
@@ -213,14 +217,8 @@ class WorkServiceImplTest {
         when(authorRepository.findByAuthorId(authorId))
                 .thenReturn(Optional.of(author));
 
-        String emptyApiResponse = """
-                {
-                    "entries": []
-                }
-                """;
-        JsonNode jsonNode = objectMapper.readTree(emptyApiResponse);
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class)))
-                .thenReturn(jsonNode);
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(), null)));
 
         // When
         List<WorkResponse> result = workService.getWorksByAuthor(authorId);
@@ -228,7 +226,7 @@ class WorkServiceImplTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty(), "Result should be empty");
-        verify(workRepository, never()).save(any());
+        verify(workRepository, never()).upsertWorks(anyList());
     }
 
     @Test
@@ -237,11 +235,11 @@ class WorkServiceImplTest {
         // Given
         String authorId = "/authors/OL123A";
 
-        when(workRepository.findAllByAuthors_AuthorId(authorId))
+        when(workRepository.findResponsesByAuthorId(authorId))
                 .thenReturn(Collections.emptyList());
 
-        // Mock RestTemplate to throw exception
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class)))
+        // Mock client to throw exception
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
                 .thenThrow(new RuntimeException("API connection failed"));
 
         // When & Then
@@ -252,53 +250,19 @@ class WorkServiceImplTest {
         assertTrue(exception.getMessage().contains("API connection failed"));
 
         verify(workRepository, times(1))
-                .findAllByAuthors_AuthorId(authorId);
-        verify(restTemplate, times(1))
-                .getForObject(anyString(), eq(JsonNode.class));
-        verify(workRepository, never()).save(any());
+                .findResponsesByAuthorId(authorId);
+        verify(openLibraryClient, times(1))
+                .fetchWorksPage(anyString(), anyBoolean());
+        verify(workRepository, never()).upsertWorks(anyList());
         verify(authorRepository, never()).findByAuthorId(anyString());
     }
 
     @Test
     @DisplayName("Should handle multiple works from API")
-    void shouldHandleMultipleWorksFromApi() throws Exception {
+    void shouldHandleMultipleWorksFromApi() {
         // Given
         String authorId = "/authors/OL123A";
 
-        when(workRepository.findAllByAuthors_AuthorId(authorId))
-                .thenReturn(Collections.emptyList());
-
-        Author author = new Author();
-        author.setAuthorId(authorId);
-        author.setAuthorName("Test Author");
-        when(authorRepository.findByAuthorId(authorId))
-                .thenReturn(Optional.of(author));
-
-        String apiResponse = """
-                {
-                    "entries": [
-                        {
-                            "key": "/works/OL1W",
-                            "title": "Work One",
-                            "description": "First work"
-                        },
-                        {
-                            "key": "/works/OL2W",
-                            "title": "Work Two",
-                            "description": "Second work"
-                        }
-                    ]
-                }
-                """;
-        JsonNode jsonNode = objectMapper.readTree(apiResponse);
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class)))
-                .thenReturn(jsonNode);
-
-        when(workRepository.findByWorkId(anyString()))
-                .thenReturn(Optional.empty());
-        when(workRepository.save(any(Work.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
-
         WorkResponse response1 = new WorkResponse();
         response1.setWorkId("/works/OL1W");
         response1.setTitle("Work One");
@@ -307,8 +271,24 @@ class WorkServiceImplTest {
         response2.setWorkId("/works/OL2W");
         response2.setTitle("Work Two");
 
-        when(workMapper.toDto(any(Work.class)))
-                .thenReturn(response1, response2);
+        when(workRepository.findResponsesByAuthorId(authorId))
+                .thenReturn(Collections.emptyList(), List.of(response1, response2));
+
+        Author author = new Author();
+        author.setAuthorId(authorId);
+        author.setAuthorName("Test Author");
+        when(authorRepository.findByAuthorId(authorId))
+                .thenReturn(Optional.of(author));
+
+        OpenLibraryWorkDoc doc1 = new OpenLibraryWorkDoc("/works/OL1W", "Work One", "First work",
+                List.of(), List.of());
+        OpenLibraryWorkDoc doc2 = new OpenLibraryWorkDoc("/works/OL2W", "Work Two", "Second work",
+                List.of(), List.of());
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(doc1, doc2), null)));
+
+        when(workRepository.upsertWorks(anyList()))
+                .thenReturn(2);
 
         // When
         List<WorkResponse> result = workService.getWorksByAuthor(authorId);
@@ -316,7 +296,55 @@ class WorkServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(2, result.size(), "Should return 2 works");
-        verify(workRepository, times(2)).save(any(Work.class));
+        verify(workRepository, times(1)).upsertWorks(argThat(docs -> docs.size() == 2));
+        verify(workRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should follow next links page by page up to the page limit")
+    void shouldFollowNextLinksUpToMaxPages() {
+        // Given
+        String authorId = "/authors/OL123A";
+
+        when(workRepository.findResponsesByAuthorId(authorId))
+                .thenReturn(Collections.emptyList(),
+                        List.of(response("/works/OL1W"), response("/works/OL2W"), response("/works/OL3W")));
+
+        Author author = new Author();
+        author.setAuthorId(authorId);
+        author.setAuthorName("Test Author");
+        when(authorRepository.findByAuthorId(authorId))
+                .thenReturn(Optional.of(author));
+
+        OpenLibraryWorkDoc doc1 = new OpenLibraryWorkDoc("/works/OL1W", "Work One", null, List.of(), List.of());
+        OpenLibraryWorkDoc doc2 = new OpenLibraryWorkDoc("/works/OL2W", "Work Two", null, List.of(), List.of());
+        OpenLibraryWorkDoc doc3 = new OpenLibraryWorkDoc("/works/OL3W", "Work Three", null, List.of(), List.of());
+        when(openLibraryClient.fetchWorksPage("/authors/OL123A/works.json?limit=100", false))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(doc1),
+                        "/authors/OL123A/works.json?offset=50")));
+        when(openLibraryClient.fetchWorksPageAsync("/authors/OL123A/works.json?offset=50&limit=100"))
+                .thenReturn(CompletableFuture.completedFuture(new OpenLibraryWorksPage(List.of(doc2),
+                        "/authors/OL123A/works.json?offset=100&limit=100")));
+        when(openLibraryClient.fetchWorksPageAsync("/authors/OL123A/works.json?offset=100&limit=100"))
+                .thenReturn(CompletableFuture.completedFuture(new OpenLibraryWorksPage(List.of(doc3),
+                        "/authors/OL123A/works.json?offset=150&limit=100")));
+
+        when(workRepository.upsertWorks(anyList()))
+                .thenReturn(1);
+
+        // When
+        List<WorkResponse> result = workService.getWorksByAuthor(authorId);
+
+        // Then - maxPages is 3, so the fourth page is never requested
+        assertEquals(List.of("/works/OL1W", "/works/OL2W", "/works/OL3W"),
+                result.stream().map(WorkResponse::getWorkId).toList());
+        verify(workRepository, times(3)).upsertWorks(anyList());
+        verify(openLibraryClient, times(2)).fetchWorksPageAsync(anyString());
+        // a truncated list cannot tell which stored works were dropped upstream
+        verify(workRepository, never()).unlinkWorksExcept(any(), any());
+        // nor can a 304 for page 1 vouch for the later pages
+        verify(openLibraryClient, never()).storeValidators(any());
+        verify(openLibraryClient).forgetValidators(any());
     }
 
     @Test
@@ -325,12 +353,12 @@ class WorkServiceImplTest {
         // Given
         String authorId = "/authors/OL123A";
 
-        when(workRepository.findAllByAuthors_AuthorId(authorId))
+        when(workRepository.findResponsesByAuthorId(authorId))
                 .thenReturn(Collections.emptyList());
 
-        // Mock RestTemplate to return null
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class)))
-                .thenReturn(null);
+        // Mock client to return no body
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenReturn(upstream(null));
 
         // When
         List<WorkResponse> result = workService.getWorksByAuthor(authorId);
@@ -338,16 +366,17 @@ class WorkServiceImplTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(workRepository, never()).save(any());
+        verify(workRepository, never()).upsertWorks(anyList());
         verify(authorRepository, never()).findByAuthorId(anyString());
     }
+
     @Test
     @DisplayName("Should create author if not exists in DB")
-    void shouldCreateAuthorIfNotExists() throws Exception {
+    void shouldCreateAuthorIfNotExists() {
         // Given
         String authorId = "/authors/OL123A";
 
-        when(workRepository.findAllByAuthors_AuthorId(authorId))
+        when(workRepository.findResponsesByAuthorId(authorId))
                 .thenReturn(Collections.emptyList());
 
         // Author not found initially
@@ -360,26 +389,11 @@ class WorkServiceImplTest {
         when(authorRepository.save(any(Author.class)))
                 .thenReturn(newAuthor);
 
-        // Mock author details API response first
-        String authorDetailsResponse = """
-                {
-                    "name": "New Author Name"
-                }
-                """;
-        JsonNode authorNode = objectMapper.readTree(authorDetailsResponse);
-
-        // Mock works API response second (empty works)
-        String worksResponse = """
-                {
-                    "entries": []
-                }
-                """;
-        JsonNode worksNode = objectMapper.readTree(worksResponse);
-
-        // Setup multiple return values: first author details, then works
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class)))
-                .thenReturn(authorNode)  // First call for author details
-                .thenReturn(worksNode);  // Second call for works
+        // Mock works API response (empty works) and author details
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(), null)));
+        when(openLibraryClient.fetchAuthorName(authorId))
+                .thenReturn(Optional.of("New Author Name"));
 
         // When
         List<WorkResponse> result = workService.getWorksByAuthor(authorId);
@@ -388,8 +402,11 @@ class WorkServiceImplTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
         verify(authorRepository, times(1)).findByAuthorId(authorId);
-        verify(authorRepository, times(1)).save(any(Author.class));
-        verify(restTemplate, times(2)).getForObject(anyString(), eq(JsonNode.class));
+        verify(authorRepository, times(1)).save(argThat(author ->
+                author.getAuthorName().equals("New Author Name")));
+        verify(openLibraryClient, times(1)).fetchWorksPage(anyString(), anyBoolean());
+        verify(openLibraryClient, times(1)).fetchAuthorName(authorId);
+        verify(authorPrefixIndex, times(1)).add(new AuthorResponse(authorId, "New Author Name"));
     }
 
     @Test
@@ -413,12 +430,15 @@ class WorkServiceImplTest {
 
     @Test
     @DisplayName("Should not duplicate work if already exists for author")
-    void shouldNotDuplicateWorkIfExists() throws Exception {
+    void shouldNotDuplicateWorkIfExists() {
         // Given
         String authorId = "/authors/OL123A";
 
-        when(workRepository.findAllByAuthors_AuthorId(authorId))
-                .thenReturn(Collections.emptyList());
+        WorkResponse workResponse = new WorkResponse();
+        workResponse.setWorkId("/works/OL456W");
+        workResponse.setTitle("Existing Work");
+        when(workRepository.findResponsesByAuthorId(authorId))
+                .thenReturn(Collections.emptyList(), List.of(workResponse));
 
         Author author = new Author();
         author.setAuthorId(authorId);
@@ -426,34 +446,14 @@ class WorkServiceImplTest {
         when(authorRepository.findByAuthorId(authorId))
                 .thenReturn(Optional.of(author));
 
-        // Existing work in DB
-        Work existingWork = new Work();
-        existingWork.setWorkId("/works/OL456W");
-        existingWork.setTitle("Existing Work");
-        existingWork.getAuthors().add(author);
-
-        when(workRepository.findByWorkId("/works/OL456W"))
-                .thenReturn(Optional.of(existingWork));
-
-        String apiResponse = """
-                {
-                    "entries": [
-                        {
-                            "key": "/works/OL456W",
-                            "title": "Existing Work"
-                        }
-                    ]
-                }
-                """;
-        JsonNode jsonNode = objectMapper.readTree(apiResponse);
-        when(restTemplate.getForObject(anyString(), eq(JsonNode.class)))
-                .thenReturn(jsonNode);
+        // Work already exists in DB, so nothing new is inserted
+        when(workRepository.upsertWorks(anyList()))
+                .thenReturn(0);
 
-        WorkResponse workResponse = new WorkResponse();
-        workResponse.setWorkId("/works/OL456W");
-        workResponse.setTitle("Existing Work");
-        when(workMapper.toDto(existingWork))
-                .thenReturn(workResponse);
+        OpenLibraryWorkDoc doc = new OpenLibraryWorkDoc("/works/OL456W", "Existing Work", null,
+                List.of(), List.of());
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(doc), null)));
 
         // When
         List<WorkResponse> result = workService.getWorksByAuthor(authorId);
@@ -463,5 +463,333 @@ class WorkServiceImplTest {
         assertEquals(1, result.size());
         // Should not create new work, just return existing
         verify(workRepository, never()).save(any(Work.class));
+        verify(workRepository, times(1)).upsertWorks(anyList());
+    }
+
+    @Test
+    @DisplayName("Should serve fresh works from database without refreshing")
+    void shouldServeFreshWorksWithoutRefresh() {
+        // Given
+        String authorId = "/authors/OL123A";
+        WorkResponse stored = new WorkResponse();
+        stored.setWorkId("/works/OL456W");
+        when(workRepository.findResponsesByAuthorId(authorId)).thenReturn(List.of(stored));
+        when(authorRepository.findWorksRefreshedAt(authorId))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofHours(1))));
+
+        // When
+        List<WorkResponse> result = workService.getWorksByAuthor(authorId);
+
+        // Then
+        assertEquals(List.of(stored), result);
+        verifyNoInteractions(backgroundRefresher);
+        verify(openLibraryClient, never()).fetchWorksPage(anyString(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should serve stale works at once and queue a background refresh")
+    void shouldServeStaleWorksAndRefreshInBackground() {
+        // Given - older than the 1 day soft TTL
+        String authorId = "/authors/OL123A";
+        WorkResponse stored = new WorkResponse();
+        stored.setWorkId("/works/OL456W");
+        when(workRepository.findResponsesByAuthorId(authorId)).thenReturn(List.of(stored));
+        when(authorRepository.findWorksRefreshedAt(authorId))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(2))));
+
+        // When
+        List<WorkResponse> result = workService.getWorksByAuthor(authorId);
+
+        // Then
+        assertEquals(List.of(stored), result);
+        verify(backgroundRefresher).schedule(eq("works:/authors/OL123A"), any(Runnable.class));
+        verify(openLibraryClient, never()).fetchWorksPage(anyString(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should refetch expired works before serving and record the refresh")
+    void shouldRefetchExpiredWorks() {
+        // Given - older than the 30 day hard TTL
+        String authorId = "/authors/OL123A";
+        WorkResponse stored = new WorkResponse();
+        stored.setWorkId("/works/OLOLDW");
+        WorkResponse fetched = new WorkResponse();
+        fetched.setWorkId("/works/OLNEWW");
+        when(workRepository.findResponsesByAuthorId(authorId)).thenReturn(List.of(stored), List.of(fetched));
+        when(authorRepository.findWorksRefreshedAt(authorId))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(31))));
+
+        Author author = new Author(authorId, "Test Author");
+        author.setId(7L);
+        when(authorRepository.findByAuthorId(authorId)).thenReturn(Optional.of(author));
+        OpenLibraryWorkDoc doc = new OpenLibraryWorkDoc("/works/OLNEWW", "New Work", null, List.of(), List.of());
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(doc), null)));
+
+        // When
+        List<WorkResponse> result = workService.getWorksByAuthor(authorId);
+
+        // Then
+        assertEquals(List.of(fetched), result);
+        verify(workRepository).upsertWorks(List.of(doc));
+        verify(authorRepository).markWorksRefreshed(eq(7L), any(Instant.class));
+        verifyNoInteractions(backgroundRefresher);
+    }
+
+    @Test
+    @DisplayName("Should fall back to expired works when OpenLibrary fails")
+    void shouldServeExpiredWorksWhenRefetchFails() {
+        // Given
+        String authorId = "/authors/OL123A";
+        WorkResponse stored = new WorkResponse();
+        stored.setWorkId("/works/OL456W");
+        when(workRepository.findResponsesByAuthorId(authorId)).thenReturn(List.of(stored));
+        when(authorRepository.findWorksRefreshedAt(authorId))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(31))));
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenThrow(new RuntimeException("API connection failed"));
+
+        // When
+        List<WorkResponse> result = workService.getWorksByAuthor(authorId);
+
+        // Then
+        assertEquals(List.of(stored), result);
+        verify(authorRepository, never()).markWorksRefreshed(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should serve expired works when the outbound call is rejected, and rethrow it unwrapped on a miss")
+    void shouldDegradeToStoredWorksWhenOutboundRejected() {
+        // Given
+        String expiredAuthor = "/authors/OL123A";
+        String missingAuthor = "/authors/OL999A";
+        WorkResponse stored = new WorkResponse();
+        stored.setWorkId("/works/OL456W");
+        when(workRepository.findResponsesByAuthorId(expiredAuthor)).thenReturn(List.of(stored));
+        when(workRepository.findResponsesByAuthorId(missingAuthor)).thenReturn(List.of());
+        when(authorRepository.findWorksRefreshedAt(expiredAuthor))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(31))));
+        OutboundRejectedException rejection = new OutboundRejectedException("rejected",
+                OutboundGate.Rejection.BULKHEAD, Duration.ofSeconds(1));
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean())).thenThrow(rejection);
+
+        // When + Then
+        assertEquals(List.of(stored), workService.getWorksByAuthor(expiredAuthor));
+        assertSame(rejection, assertThrows(OutboundRejectedException.class,
+                () -> workService.getWorksByAuthor(missingAuthor)));
+    }
+
+    @Test
+    @DisplayName("Should not store a placeholder author name when the author lookup is rejected")
+    void shouldNotSaveUnknownAuthorWhenLookupRejected() {
+        // Given
+        String authorId = "/authors/OL123A";
+        when(workRepository.findResponsesByAuthorId(authorId)).thenReturn(List.of());
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(
+                        new OpenLibraryWorkDoc("/works/OL1W", "Work One", null, List.of(), List.of())), null)));
+        when(authorRepository.findByAuthorId(authorId)).thenReturn(Optional.empty());
+        OutboundRejectedException rejection = new OutboundRejectedException("rejected",
+                OutboundGate.Rejection.RATE_LIMIT, Duration.ofSeconds(1));
+        when(openLibraryClient.fetchAuthorName(authorId)).thenThrow(rejection);
+
+        // When + Then
+        assertSame(rejection, assertThrows(OutboundRejectedException.class,
+                () -> workService.getWorksByAuthor(authorId)));
+        verify(authorRepository, never()).save(any());
+        verify(workRepository, never()).upsertWorks(anyList());
+    }
+
+    @Test
+    @DisplayName("Should neither link nor mark refreshed an author whose later page is rejected")
+    void shouldLeaveAuthorUnrefreshedWhenLaterPageRejected() {
+        // Given
+        String authorId = "/authors/OL123A";
+        when(workRepository.findResponsesByAuthorId(authorId)).thenReturn(List.of());
+        Author author = new Author(authorId, "Test Author");
+        author.setId(7L);
+        when(authorRepository.findByAuthorId(authorId)).thenReturn(Optional.of(author));
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(
+                        new OpenLibraryWorkDoc("/works/OL1W", "Work One", null, List.of(), List.of())),
+                        "/authors/OL123A/works.json?offset=50")));
+        OutboundRejectedException rejection = new OutboundRejectedException("rejected",
+                OutboundGate.Rejection.BULKHEAD, Duration.ofSeconds(1));
+        when(openLibraryClient.fetchWorksPageAsync(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(rejection));
+
+        // When + Then
+        assertSame(rejection, assertThrows(OutboundRejectedException.class,
+                () -> workService.getWorksByAuthor(authorId)));
+        verify(workRepository).upsertWorks(anyList());
+        verify(workRepository, never()).linkWorks(any(), any());
+        verify(workRepository, never()).unlinkWorksExcept(any(), any());
+        verify(authorRepository, never()).markWorksRefreshed(anyLong(), any());
+        verify(openLibraryClient, never()).storeValidators(any());
+    }
+
+    @Test
+    @DisplayName("Should report the stored works version while fresh or stale, not once expired")
+    void shouldReportCurrentWorksVersion() {
+        // Given
+        String authorId = "/authors/OL123A";
+        WorksVersion fresh = new WorksVersion(Instant.now().minus(Duration.ofHours(1)), 3, Instant.EPOCH);
+        WorksVersion stale = new WorksVersion(Instant.now().minus(Duration.ofDays(2)), 3, Instant.EPOCH);
+        WorksVersion expired = new WorksVersion(Instant.now().minus(Duration.ofDays(31)), 3, Instant.EPOCH);
+        when(workRepository.findWorksVersion(authorId))
+                .thenReturn(Optional.of(fresh), Optional.of(stale), Optional.of(expired), Optional.empty());
+
+        // When + Then
+        assertEquals(Optional.of(fresh), workService.currentWorksVersion("OL123A"));
+        verifyNoInteractions(backgroundRefresher);
+        assertEquals(Optional.of(stale), workService.currentWorksVersion(authorId));
+        verify(backgroundRefresher).schedule(eq("works:/authors/OL123A"), any(Runnable.class));
+        assertEquals(Optional.empty(), workService.currentWorksVersion(authorId));
+        assertEquals(Optional.empty(), workService.currentWorksVersion(authorId));
+        verify(workRepository, never()).findResponsesByAuthorId(anyString());
+        verifyNoInteractions(openLibraryClient);
+    }
+
+    @Test
+    @DisplayName("Should revalidate stale works in the background and only bump them on 304")
+    void shouldKeepStaleWorksWhenNotModified() {
+        // Given
+        String authorId = "/authors/OL123A";
+        WorkResponse stored = new WorkResponse();
+        stored.setWorkId("/works/OL456W");
+        when(workRepository.findResponsesByAuthorId(authorId)).thenReturn(List.of(stored));
+        when(authorRepository.findWorksRefreshedAt(authorId))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(2))));
+        Author author = new Author(authorId, "Test Author");
+        author.setId(7L);
+        when(authorRepository.findByAuthorId(authorId)).thenReturn(Optional.of(author));
+        UpstreamResponse<OpenLibraryWorksPage> notModified = UpstreamResponse.notModified(
+                "https://openlibrary.org/authors/OL123A/works.json?limit=100", new HttpHeaders());
+        when(openLibraryClient.fetchWorksPage("/authors/OL123A/works.json?limit=100", true)).thenReturn(notModified);
+        workService.getWorksByAuthor(authorId);
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(backgroundRefresher).schedule(eq("works:/authors/OL123A"), refresh.capture());
+
+        // When
+        refresh.getValue().run();
+
+        // Then
+        verify(authorRepository).markWorksRefreshed(eq(7L), any(Instant.class));
+        verify(openLibraryClient).storeValidators(notModified);
+        verify(workRepository, never()).upsertWorks(anyList());
+        verify(openLibraryClient, never()).fetchWorksPageAsync(anyString());
+    }
+
+    @Test
+    @DisplayName("Should store validators only after the works are ingested and marked refreshed")
+    void shouldStoreValidatorsAfterIngest() {
+        // Given
+        String authorId = "/authors/OL123A";
+        when(workRepository.findResponsesByAuthorId(authorId)).thenReturn(Collections.emptyList());
+        Author author = new Author(authorId, "Test Author");
+        author.setId(7L);
+        when(authorRepository.findByAuthorId(authorId)).thenReturn(Optional.of(author));
+        OpenLibraryWorkDoc doc = new OpenLibraryWorkDoc("/works/OL1W", "Work", null, List.of(), List.of());
+        UpstreamResponse<OpenLibraryWorksPage> response = upstream(new OpenLibraryWorksPage(List.of(doc), null));
+        when(openLibraryClient.fetchWorksPage("/authors/OL123A/works.json?limit=100", false)).thenReturn(response);
+
+        // When
+        workService.getWorksByAuthor(authorId);
+
+        // Then
+        InOrder order = inOrder(workRepository, authorRepository, openLibraryClient);
+        order.verify(workRepository).upsertWorks(List.of(doc));
+        order.verify(workRepository).linkWorks(author, Set.of(doc.getKey()));
+        order.verify(authorRepository).markWorksRefreshed(eq(7L), any(Instant.class));
+        order.verify(openLibraryClient).storeValidators(response);
+    }
+
+    private static WorkResponse response(String workId) {
+        WorkResponse response = new WorkResponse();
+        response.setWorkId(workId);
+        return response;
+    }
+
+    private static UpstreamResponse<OpenLibraryWorksPage> upstream(OpenLibraryWorksPage page) {
+        return UpstreamResponse.of("https://openlibrary.org/authors/OL123A/works.json", page, new HttpHeaders());
+    }
+    @Test
+    @DisplayName("Should serve a batch from one DB read and fetch only the misses")
+    void shouldServeBatchFromOneReadAndFetchMisses() {
+        // Given - OL1A fresh, OL2A stale, OL3A not stored
+        WorkResponse fresh = new WorkResponse();
+        fresh.setWorkId("/works/OL1W");
+        WorkResponse stale = new WorkResponse();
+        stale.setWorkId("/works/OL2W");
+        when(workRepository.findStoredWorksByAuthorIds(List.of("/authors/OL1A", "/authors/OL2A", "/authors/OL3A")))
+                .thenReturn(Map.of(
+                        "/authors/OL1A", new StoredWorks(Instant.now().minus(Duration.ofHours(1)), List.of(fresh)),
+                        "/authors/OL2A", new StoredWorks(Instant.now().minus(Duration.ofDays(2)), List.of(stale))));
+        Author author = new Author("/authors/OL3A", "Fetched Author");
+        when(authorRepository.findByAuthorId("/authors/OL3A")).thenReturn(Optional.of(author));
+        OpenLibraryWorkDoc doc = new OpenLibraryWorkDoc("/works/OL3W", "Fetched", null, List.of(), List.of());
+        when(openLibraryClient.fetchWorksPage("/authors/OL3A/works.json?limit=100", false))
+                .thenReturn(upstream(new OpenLibraryWorksPage(List.of(doc), null)));
+        WorkResponse fetched = new WorkResponse();
+        fetched.setWorkId("/works/OL3W");
+        when(workRepository.findResponsesByAuthorId("/authors/OL3A")).thenReturn(List.of(fetched));
+
+        // When
+        Map<String, AuthorWorksResult> results = workService.getWorksByAuthors(
+                List.of("OL1A", "/authors/OL2A", "OL3A", " ", "OL1A"));
+
+        // Then
+        assertEquals(List.of("OL1A", "/authors/OL2A", "OL3A", " "), List.copyOf(results.keySet()));
+        assertEquals(AuthorWorksResult.of(List.of(fresh)), results.get("OL1A"));
+        assertEquals(AuthorWorksResult.of(List.of(stale)), results.get("/authors/OL2A"));
+        assertEquals(AuthorWorksResult.of(List.of(fetched)), results.get("OL3A"));
+        assertNotNull(results.get(" ").getError());
+        verify(workRepository, times(1)).findStoredWorksByAuthorIds(anyCollection());
+        // only the fetched author's works are read back
+        verify(workRepository, times(1)).findResponsesByAuthorId(anyString());
+        verify(backgroundRefresher).schedule(eq("works:/authors/OL2A"), any(Runnable.class));
+        verify(openLibraryClient, times(1)).fetchWorksPage(anyString(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should not start batch fetches that get a thread only after the batch deadline")
+    void shouldSkipBatchFetchesPastDeadline() {
+        // Given - OL1A expired, OL3A not stored; the deadline has passed before either fetch runs
+        ReflectionTestUtils.setField(workService, "batchTimeout", Duration.ZERO);
+        WorkResponse expired = new WorkResponse();
+        expired.setWorkId("/works/OL1W");
+        when(workRepository.findStoredWorksByAuthorIds(anyCollection()))
+                .thenReturn(Map.of("/authors/OL1A",
+                        new StoredWorks(Instant.now().minus(Duration.ofDays(31)), List.of(expired))));
+
+        // When
+        Map<String, AuthorWorksResult> results = workService.getWorksByAuthors(List.of("OL1A", "OL3A"));
+
+        // Then
+        assertEquals(List.of(expired), results.get("OL1A").getWorks());
+        assertNull(results.get("OL3A").getWorks());
+        assertTrue(results.get("OL3A").getError().contains("Timed out"));
+        verifyNoInteractions(openLibraryClient);
+    }
+
+    @Test
+    @DisplayName("Should report a failed author in its result and still return the others")
+    void shouldReportPerAuthorErrorsInBatch() {
+        // Given
+        WorkResponse stored = new WorkResponse();
+        stored.setWorkId("/works/OL1W");
+        when(workRepository.findStoredWorksByAuthorIds(anyCollection()))
+                .thenReturn(Map.of("/authors/OL1A",
+                        new StoredWorks(Instant.now().minus(Duration.ofHours(1)), List.of(stored))));
+        when(openLibraryClient.fetchWorksPage(anyString(), anyBoolean()))
+                .thenThrow(new RuntimeException("503 Service Unavailable"));
+
+        // When
+        Map<String, AuthorWorksResult> results = workService.getWorksByAuthors(List.of("OL1A", "OL3A"));
+
+        // Then
+        assertEquals(List.of(stored), results.get("OL1A").getWorks());
+        assertNull(results.get("OL3A").getWorks());
+        assertTrue(results.get("OL3A").getError().contains("503 Service Unavailable"));
     }
-}
\ No newline at end of file
+}